@@ -0,0 +1,142 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.Blob;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * One comment of the "entry" kind. Comments are ordered newest first, and comments posted in the
+ * same millisecond by key, the same way Datastore orders them by descending timestamp.
+ */
+public final class Comment {
+  /** Newest first, then by key. */
+  public static final Comparator<Comment> NEWEST_FIRST =
+      Comparator.comparingLong(Comment::getTimestamp).reversed().thenComparing(Comment::getKey);
+
+  private final Key key;
+  private final String firstName;
+  private final String lastName;
+  private final String text;
+  private final long timestamp;
+
+  // The rendered comment as an escaped JSON string, made on first use. Racing threads build equal
+  // arrays, so the field needs no lock.
+  private volatile byte[] json;
+
+  private Comment(Key key, String firstName, String lastName, String text, long timestamp) {
+    this.key = key;
+    this.firstName = firstName;
+    this.lastName = lastName;
+    this.text = text;
+    this.timestamp = timestamp;
+  }
+
+  /**
+   * Creates a comment that is not stored yet. It gets a random key name up front, so storing it
+   * more than once leaves a single entity.
+   */
+  public static Comment create(String firstName, String lastName, String text, long timestamp) {
+    return of(UUID.randomUUID().toString(), firstName, lastName, text, timestamp);
+  }
+
+  /**
+   * Creates a comment whose key has the name {@code keyName}.
+   */
+  public static Comment of(
+      String keyName, String firstName, String lastName, String text, long timestamp) {
+    if (keyName == null) {
+      throw new IllegalArgumentException("keyName cannot be null");
+    }
+
+    return new Comment(
+        KeyFactory.createKey("entry", keyName), firstName, lastName, text, timestamp);
+  }
+
+  /**
+   * Reads a comment from a stored entity.
+   */
+  public static Comment fromEntity(Entity entity) {
+    Object timestamp = entity.getProperty("timestamp");
+    Comment comment = new Comment(entity.getKey(), (String) entity.getProperty("firstName"),
+        (String) entity.getProperty("lastName"), (String) entity.getProperty("comment"),
+        timestamp instanceof Long ? (Long) timestamp : 0);
+    // Comments stored before fragments were kept have to be rendered on first use.
+    Object json = entity.getProperty("json");
+    if (json instanceof Blob) {
+      comment.json = ((Blob) json).getBytes();
+    }
+    return comment;
+  }
+
+  /**
+   * Returns the comment as an entity, with its JSON fragment stored alongside so that reading it
+   * back does not render it again.
+   */
+  public Entity toEntity() {
+    Entity entity = new Entity(key);
+    entity.setProperty("firstName", firstName);
+    entity.setProperty("lastName", lastName);
+    entity.setProperty("comment", text);
+    entity.setProperty("timestamp", timestamp);
+    entity.setUnindexedProperty("json", new Blob(getJsonFragment()));
+    return entity;
+  }
+
+  /**
+   * Returns the comment as it is shown on the comments page.
+   */
+  public String render() {
+    return firstName + " " + lastName + ":\n" + text;
+  }
+
+  /**
+   * Returns {@link #render()} as an escaped JSON string in UTF-8, ready to be copied into a
+   * response. It is built once per comment. The array must not be modified.
+   */
+  public byte[] getJsonFragment() {
+    byte[] fragment = json;
+    if (fragment == null) {
+      fragment = UtilityClass.convertToJsonUsingGson(render()).getBytes(StandardCharsets.UTF_8);
+      json = fragment;
+    }
+    return fragment;
+  }
+
+  public Key getKey() {
+    return key;
+  }
+
+  public String getFirstName() {
+    return firstName;
+  }
+
+  public String getLastName() {
+    return lastName;
+  }
+
+  public String getText() {
+    return text;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+}
@@ -0,0 +1,105 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Where a page of comments, newest first, picks up: right after the last comment already shown,
+ * which is named by its timestamp and key. The next page holds the comments older than
+ * {@code timestamp}, and those of exactly that timestamp whose key comes after {@code key}.
+ * Resuming from a comment rather than from an offset keeps every page equally cheap however deep
+ * it is, whatever the cursor says, and lets a page be read from Datastore or from memory alike.
+ */
+public final class CommentCursor {
+  private final long timestamp;
+  private final Key key;
+
+  private CommentCursor(long timestamp, Key key) {
+    this.timestamp = timestamp;
+    this.key = key;
+  }
+
+  /**
+   * Returns the cursor of the page after {@code page}. {@code page} must not be empty.
+   */
+  public static CommentCursor after(List<Comment> page) {
+    if (page.isEmpty()) {
+      throw new IllegalArgumentException("page cannot be empty");
+    }
+
+    Comment last = page.get(page.size() - 1);
+    return new CommentCursor(last.getTimestamp(), last.getKey());
+  }
+
+  /**
+   * Reads a cursor returned by {@link #encode()}.
+   *
+   * @throws IllegalArgumentException If {@code encoded} is not a cursor.
+   */
+  public static CommentCursor decode(String encoded) {
+    String decoded;
+    try {
+      decoded = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Not a comment cursor: " + encoded, e);
+    }
+    int colon = decoded.indexOf(':');
+    if (colon < 0) {
+      throw new IllegalArgumentException("Not a comment cursor: " + encoded);
+    }
+    long timestamp;
+    Key key;
+    try {
+      timestamp = Long.parseLong(decoded.substring(0, colon));
+      key = KeyFactory.stringToKey(decoded.substring(colon + 1));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Not a comment cursor: " + encoded, e);
+    }
+    if (!"entry".equals(key.getKind()) || key.getParent() != null) {
+      throw new IllegalArgumentException("Not a comment cursor: " + encoded);
+    }
+    return new CommentCursor(timestamp, key);
+  }
+
+  /**
+   * Returns the cursor as an opaque, URL-safe string.
+   */
+  public String encode() {
+    String plain = timestamp + ":" + KeyFactory.keyToString(key);
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Checks whether {@code comment} comes after the cursor, that is, on the pages it leads to.
+   */
+  public boolean precedes(Comment comment) {
+    return comment.getTimestamp() < timestamp
+        || (comment.getTimestamp() == timestamp && comment.getKey().compareTo(key) > 0);
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public Key getKey() {
+    return key;
+  }
+}
@@ -0,0 +1,370 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.AsyncDatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.Key;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects new comments in memory and writes them to Datastore in batches without making the
+ * request that posts a comment wait for the write. {@link #add} queues the comment and starts an
+ * asynchronous put of everything queued, in batches of at most {@code batchSize}, so comments
+ * posted by concurrent requests share a put. Puts are not waited for: each call to {@link #add}
+ * first settles the puts that have finished since the last one, and {@link #close} waits for the
+ * rest. A batch whose put failed is queued again.
+ *
+ * <p>Every comment is appended to a local spill file before it is queued, and the file is emptied
+ * once everything in it has been written. Comments still in the file when the queue is created
+ * again are written then, so an orderly restart of a long-lived server loses nothing. The file is
+ * not forced to disk, and it is no guard against a crash on App Engine, where the instance's
+ * temporary directory lives in its memory and goes with it. Comments come with named keys, so
+ * writing one twice leaves a single entity.
+ *
+ * <p>The queue holds at most {@code capacity} comments. When it is full, {@link #add} waits for
+ * room for a while and then gives up, which tells the caller to shed load.
+ */
+public final class CommentIngestQueue implements Closeable {
+  private static final Logger logger = Logger.getLogger(CommentIngestQueue.class.getName());
+
+  // How long {@code add} waits for room in a full queue before refusing the comment.
+  private static final long OFFER_TIMEOUT_MILLIS = 200;
+
+  /**
+   * A put that was started and not settled yet.
+   */
+  private static final class Write {
+    private final List<Entity> batch;
+    private final Future<List<Key>> result;
+
+    Write(List<Entity> batch, Future<List<Key>> result) {
+      this.batch = batch;
+      this.result = result;
+    }
+  }
+
+  private final AsyncDatastoreService datastore;
+  private final int capacity;
+  private final int batchSize;
+  private final FileChannel spill;
+
+  // One permit for each comment the queue has room for, taken before a comment is queued and
+  // given back once it is written. Starts negative if more comments than that were recovered.
+  private final Semaphore room;
+  private final Queue<Entity> queue = new ConcurrentLinkedQueue<>();
+
+  // Puts started and not settled yet. Guarded by itself, as is {@code finished}, which is set once
+  // {@code close} has settled the last of them.
+  private final List<Write> writes = new ArrayList<>();
+  private boolean finished = false;
+
+  // Comments appended to the spill file and comments written to Datastore since the file was
+  // last emptied. Both are guarded by {@code spill}, as is {@code closed}.
+  private long spilled = 0;
+  private long written = 0;
+  private boolean closed = false;
+
+  /**
+   * Writes any comments left in {@code spillFile} by an earlier run. If Datastore fails meanwhile,
+   * the comments it did not take stay in the file and are queued.
+   *
+   * @param datastore Where comments are written. Must be non-null.
+   * @param spillFile Local file that holds queued comments until they are written. Created if
+   *     missing.
+   * @param capacity Most comments waiting to be written at once. Must be positive.
+   * @param batchSize Most comments written in one Datastore call. Must be positive.
+   */
+  public CommentIngestQueue(AsyncDatastoreService datastore, Path spillFile, int capacity,
+      int batchSize) throws IOException {
+    if (datastore == null) {
+      throw new IllegalArgumentException("datastore cannot be null");
+    }
+    if (spillFile == null) {
+      throw new IllegalArgumentException("spillFile cannot be null");
+    }
+    if (capacity <= 0 || batchSize <= 0) {
+      throw new IllegalArgumentException("capacity and batchSize must be positive");
+    }
+
+    this.datastore = datastore;
+    this.capacity = capacity;
+    this.batchSize = batchSize;
+
+    List<Entity> left = recover(spillFile);
+    this.room = new Semaphore(capacity - left.size());
+    queue.addAll(left);
+    spilled = left.size();
+    // Keep the file if some of it still has to be written.
+    this.spill = left.isEmpty()
+        ? FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)
+        : FileChannel.open(spillFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+  }
+
+  /**
+   * Queues {@code comment} and starts writing it, without waiting for the write. Returns once the
+   * comment is in the spill file.
+   *
+   * @param comment The comment to write. Its key must have a name, so that writing it again after
+   *     a restart does not store it twice.
+   * @return False if the queue stayed full or has been closed, in which case the comment was not
+   *     taken.
+   */
+  public boolean add(Comment comment) throws IOException {
+    if (comment == null) {
+      throw new IllegalArgumentException("comment cannot be null");
+    }
+    if (comment.getKey().getName() == null) {
+      throw new IllegalArgumentException("comment must have a named key");
+    }
+    String json = UtilityClass.convertToJsonUsingGson(comment);
+    byte[] line = (json + "\n").getBytes(StandardCharsets.UTF_8);
+    Entity entity = comment.toEntity();
+
+    // Finished puts give their room back before this comment asks for some.
+    settle();
+
+    // Waits for room without holding the spill lock, so that a full queue only holds up the
+    // requests that are waiting for room.
+    try {
+      if (!room.tryAcquire(OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+        return false;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    boolean queued = false;
+    try {
+      synchronized (spill) {
+        if (closed) {
+          return false;
+        }
+        spill.write(ByteBuffer.wrap(line));
+        spilled++;
+        queue.add(entity);
+        queued = true;
+      }
+    } finally {
+      if (!queued) {
+        room.release();
+      }
+    }
+
+    startWrites();
+    return true;
+  }
+
+  /**
+   * Returns the number of comments waiting to be written.
+   */
+  public int size() {
+    return capacity - room.availablePermits();
+  }
+
+  /**
+   * Stops taking comments, writes the ones already queued and waits for every put before
+   * returning. Comments that still cannot be written are left in the spill file.
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (spill) {
+      closed = true;
+    }
+    synchronized (writes) {
+      settle();
+      startWrites();
+      for (Write write : writes) {
+        try {
+          write.result.get();
+          wrote(write.batch);
+        } catch (ExecutionException e) {
+          logger.log(Level.WARNING,
+              "Could not write " + write.batch.size() + " comments before closing", e.getCause());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+      writes.clear();
+      finished = true;
+    }
+    synchronized (spill) {
+      spill.close();
+    }
+  }
+
+  /**
+   * Starts a put for each batch of queued comments.
+   */
+  private void startWrites() {
+    synchronized (writes) {
+      if (finished) {
+        return;
+      }
+      while (!queue.isEmpty()) {
+        List<Entity> batch = new ArrayList<>(batchSize);
+        Entity next;
+        while (batch.size() < batchSize && (next = queue.poll()) != null) {
+          batch.add(next);
+        }
+        if (batch.isEmpty()) {
+          return;
+        }
+        Future<List<Key>> result;
+        try {
+          result = datastore.put(batch);
+        } catch (RuntimeException e) {
+          logger.log(Level.WARNING, "Could not write " + batch.size() + " comments, will retry", e);
+          queue.addAll(batch);
+          return;
+        }
+        writes.add(new Write(batch, result));
+      }
+    }
+  }
+
+  /**
+   * Settles the puts that have finished: the comments of those that succeeded are counted as
+   * written, and those that failed are queued again to be written with the next ones.
+   */
+  private void settle() {
+    synchronized (writes) {
+      if (finished) {
+        return;
+      }
+      Iterator<Write> it = writes.iterator();
+      while (it.hasNext()) {
+        Write write = it.next();
+        if (!write.result.isDone()) {
+          continue;
+        }
+        it.remove();
+        try {
+          write.result.get();
+          wrote(write.batch);
+        } catch (ExecutionException e) {
+          logger.log(Level.WARNING,
+              "Could not write " + write.batch.size() + " comments, will retry", e.getCause());
+          queue.addAll(write.batch);
+        } catch (InterruptedException e) {
+          // Done futures don't wait, so this is only a stale interrupt. Keep it for the caller.
+          Thread.currentThread().interrupt();
+          writes.add(write);
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Gives back the room of a written batch and empties the spill file once all of it is written.
+   */
+  private void wrote(List<Entity> batch) {
+    room.release(batch.size());
+
+    synchronized (spill) {
+      written += batch.size();
+      if (written >= spilled && spill.isOpen()) {
+        try {
+          spill.truncate(0);
+          spill.position(0);
+          spilled = 0;
+          written = 0;
+        } catch (IOException e) {
+          // The file is emptied on a later batch, and replaying it is harmless.
+          logger.log(Level.WARNING, "Could not empty the comment spill file", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the comments left in {@code spillFile}, if any, in batches, and returns those Datastore
+   * did not take because it failed.
+   */
+  private List<Entity> recover(Path spillFile) throws IOException {
+    List<Entity> left = new ArrayList<>();
+    if (!Files.exists(spillFile)) {
+      return left;
+    }
+    List<Entity> batch = new ArrayList<>(batchSize);
+    try (BufferedReader reader = Files.newBufferedReader(spillFile, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty()) {
+          continue;
+        }
+        Comment comment;
+        try {
+          comment = UtilityClass.fromJson(line, Comment.class);
+        } catch (RuntimeException e) {
+          // A line cut short by the crash was never acknowledged to its poster.
+          continue;
+        }
+        if (comment == null) {
+          continue;
+        }
+        batch.add(comment.toEntity());
+        if (batch.size() == batchSize) {
+          putRecovered(batch, left);
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+    }
+    if (!batch.isEmpty()) {
+      putRecovered(batch, left);
+    }
+    return left;
+  }
+
+  /**
+   * Writes a batch of recovered comments, unless an earlier batch failed, and adds it to
+   * {@code left} if it is not written.
+   */
+  private void putRecovered(List<Entity> batch, List<Entity> left) {
+    if (left.isEmpty()) {
+      try {
+        datastore.put(batch).get();
+        return;
+      } catch (ExecutionException | RuntimeException e) {
+        logger.log(Level.WARNING, "Could not write the comments left in the spill file", e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    left.addAll(batch);
+  }
+}
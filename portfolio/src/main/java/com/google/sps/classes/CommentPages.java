@@ -0,0 +1,231 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.CompositeFilterOperator;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
+import com.google.appengine.api.datastore.Query.SortDirection;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads comments newest first, one page at a time. Each page ends with an opaque
+ * {@code CommentCursor} that the next page resumes from, so a page costs the same no matter how
+ * deep it is or how many comments there are. Pages within the newest comments are read from
+ * {@code RecentComments}, which is filled again from Datastore once it is older than
+ * {@code maxStaleMillis} so that comments posted to other instances show up. Deeper pages are
+ * read from Datastore when they are asked for.
+ *
+ * <p>So first pages are not entirely free of Datastore: an instance that is being read runs one
+ * query for the newest comments every {@code maxStaleMillis}, however many pages it serves, and
+ * one of its readers waits for it. Posting cannot keep the rings of other instances up to date,
+ * so this is what showing their comments costs. A longer {@code maxStaleMillis} means fewer
+ * queries but comments from elsewhere that show up later, and {@code Long.MAX_VALUE} means no
+ * queries after the first fill, with each instance showing only what was posted to it since.
+ */
+public final class CommentPages {
+  private static final Logger logger = Logger.getLogger(CommentPages.class.getName());
+
+  /** Largest number of comments returned in one page, whatever the client asks for. */
+  public static final int MAX_PAGE_SIZE = 50;
+
+  private final DatastoreService datastore;
+  private final RecentComments recent;
+  private final long maxStaleMillis;
+
+  /**
+   * @param datastore Where comments are read from. Must be non-null.
+   * @param recent The newest comments, read before Datastore. Must be non-null.
+   * @param maxStaleMillis How long {@code recent} is read before it is filled again. Must not be
+   *     negative.
+   */
+  public CommentPages(DatastoreService datastore, RecentComments recent, long maxStaleMillis) {
+    if (datastore == null) {
+      throw new IllegalArgumentException("datastore cannot be null");
+    }
+    if (recent == null) {
+      throw new IllegalArgumentException("recent cannot be null");
+    }
+    if (maxStaleMillis < 0) {
+      throw new IllegalArgumentException("maxStaleMillis cannot be negative");
+    }
+
+    this.datastore = datastore;
+    this.recent = recent;
+    this.maxStaleMillis = maxStaleMillis;
+  }
+
+  /**
+   * Fills {@code recent} with the newest comments from Datastore.
+   */
+  public void refreshRecent() {
+    recent.fill(readNewest());
+  }
+
+  /**
+   * Returns up to {@code size} comments starting at {@code cursor}, or at the newest comment if
+   * {@code cursor} is null. {@code size} is clamped to between 1 and {@link #MAX_PAGE_SIZE}.
+   *
+   * @throws IllegalArgumentException If {@code cursor} was not returned by an earlier page.
+   */
+  public Page read(String cursor, int size) {
+    int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    CommentCursor start = cursor != null ? CommentCursor.decode(cursor) : null;
+
+    try {
+      recent.refreshIfOlderThan(maxStaleMillis, this::readNewest);
+    } catch (RuntimeException e) {
+      // The comments held are still good to read, only staler.
+      logger.log(Level.WARNING, "Could not refresh the newest comments", e);
+    }
+    List<Comment> comments = recent.page(start, limit);
+    if (comments == null) {
+      comments = startFetch(start, limit).collect();
+    }
+
+    // A short page is the last one, so there is nothing to resume from.
+    if (comments.size() < limit) {
+      return new Page(comments, null);
+    }
+    return new Page(comments, CommentCursor.after(comments).encode());
+  }
+
+  private List<Comment> readNewest() {
+    return startFetch(null, recent.capacity()).collect();
+  }
+
+  /**
+   * Starts the queries for up to {@code limit} comments after {@code start}. Datastore starts
+   * fetching as soon as a query's iterator is made, and iterating waits for the results.
+   *
+   * <p>The comments after {@code start} are those of its timestamp with a greater key, then the
+   * older ones. Each is one query on the built-in timestamp index, which Datastore starts reading
+   * right where the cursor points rather than skipping to it. Both are started before either is
+   * read, so that a page waits for one round trip rather than two.
+   */
+  private Fetch startFetch(CommentCursor start, int limit) {
+    FetchOptions options = FetchOptions.Builder.withLimit(limit).prefetchSize(limit);
+    Query older = new Query("entry")
+        .addSort("timestamp", SortDirection.DESCENDING)
+        .addSort(Entity.KEY_RESERVED_PROPERTY, SortDirection.ASCENDING);
+    if (start == null) {
+      return new Fetch(null, datastore.prepare(older).asIterator(options), limit);
+    }
+
+    Query ties = new Query("entry")
+        .setFilter(CompositeFilterOperator.and(
+            new FilterPredicate("timestamp", FilterOperator.EQUAL, start.getTimestamp()),
+            new FilterPredicate(
+                Entity.KEY_RESERVED_PROPERTY, FilterOperator.GREATER_THAN, start.getKey())))
+        .addSort(Entity.KEY_RESERVED_PROPERTY, SortDirection.ASCENDING);
+    older.setFilter(
+        new FilterPredicate("timestamp", FilterOperator.LESS_THAN, start.getTimestamp()));
+    return new Fetch(datastore.prepare(ties).asIterator(options),
+        datastore.prepare(older).asIterator(options), limit);
+  }
+
+  /**
+   * The running queries for one page: the comments tied with the cursor's timestamp, if any, then
+   * the older ones.
+   */
+  private static final class Fetch {
+    private final Iterator<Entity> ties;
+    private final Iterator<Entity> older;
+    private final int limit;
+
+    Fetch(Iterator<Entity> ties, Iterator<Entity> older, int limit) {
+      this.ties = ties;
+      this.older = older;
+      this.limit = limit;
+    }
+
+    /**
+     * Waits for the results and returns them, newest first.
+     */
+    List<Comment> collect() {
+      List<Comment> comments = new ArrayList<>(limit);
+      if (ties != null) {
+        while (comments.size() < limit && ties.hasNext()) {
+          comments.add(Comment.fromEntity(ties.next()));
+        }
+      }
+      while (comments.size() < limit && older.hasNext()) {
+        comments.add(Comment.fromEntity(older.next()));
+      }
+      return comments;
+    }
+  }
+
+  /**
+   * One page of comments, newest first, and the cursor of the page after it. The cursor is null
+   * on the last page.
+   */
+  public static final class Page {
+    private static final byte[] OPEN = "{\"comments\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CURSOR = "],\"cursor\":\"".getBytes(StandardCharsets.UTF_8);
+
+    private final List<Comment> comments;
+    private final String cursor;
+
+    Page(List<Comment> comments, String cursor) {
+      this.comments = Collections.unmodifiableList(comments);
+      this.cursor = cursor;
+    }
+
+    public List<Comment> getComments() {
+      return comments;
+    }
+
+    public String getCursor() {
+      return cursor;
+    }
+
+    /**
+     * Writes the page as {@code {"comments": [...], "cursor": "..."}}, leaving out the cursor on
+     * the last page. Each comment is copied from its cached JSON fragment, so nothing is
+     * serialized here.
+     */
+    public void writeJson(OutputStream out) throws IOException {
+      out.write(OPEN);
+      for (int i = 0; i < comments.size(); i++) {
+        if (i > 0) {
+          out.write(',');
+        }
+        out.write(comments.get(i).getJsonFragment());
+      }
+      if (cursor == null) {
+        out.write(']');
+      } else {
+        // Cursors are URL-safe Base64, which needs no escaping.
+        out.write(CURSOR);
+        out.write(cursor.getBytes(StandardCharsets.US_ASCII));
+        out.write('"');
+      }
+      out.write('}');
+    }
+  }
+}
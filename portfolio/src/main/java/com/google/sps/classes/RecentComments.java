@@ -0,0 +1,243 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.Key;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The newest comments, newest first, in a fixed-size ring. Pages that fall within the ring are
+ * read from memory, and only deeper pages need Datastore. The ring is filled from Datastore and
+ * kept up to date as comments are posted here, with the oldest comment dropped to make room for
+ * each new one.
+ *
+ * <p>Each server instance has its own ring and only sees the comments posted to it. Comments
+ * posted to other instances show up when the ring is filled again, which
+ * {@link #refreshIfOlderThan} does once the last fill is older than the staleness allowed. That
+ * costs one Datastore query per instance each time, which is the price of seeing other instances'
+ * comments within that time.
+ *
+ * <p>All methods are safe to call from several threads.
+ */
+public final class RecentComments {
+  private final Comment[] ring;
+
+  // Position of the newest comment in {@code ring} and number of comments held. The comment that
+  // is {@code i}-th newest is at {@code ring[(head + i) % ring.length]}. Guarded by {@code this}.
+  private int head = 0;
+  private int size = 0;
+
+  // Whether the ring holds every comment there is, so that a short page means there are no more.
+  // Guarded by {@code this}.
+  private boolean complete = false;
+
+  // Whether the ring was filled yet, and when, from {@code System.nanoTime}. Guarded by
+  // {@code this}.
+  private boolean filled = false;
+  private long filledAt;
+
+  // Set while some request is filling the ring again.
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param capacity Most comments held. Must be positive.
+   */
+  public RecentComments(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+
+    this.ring = new Comment[capacity];
+  }
+
+  public int capacity() {
+    return ring.length;
+  }
+
+  /**
+   * Fills the ring from {@code newest}, which must be the newest comments there are, newest
+   * first, as read from Datastore with a limit of {@link #capacity()}. Comments held that are not
+   * in {@code newest}, such as ones posted here but not written yet, are kept in their place.
+   */
+  public synchronized void fill(List<Comment> newest) {
+    if (newest == null) {
+      throw new IllegalArgumentException("newest cannot be null");
+    }
+
+    List<Comment> merged = new ArrayList<>(newest.size() + size);
+    Set<Key> keys = new HashSet<>();
+    for (Comment comment : newest) {
+      if (keys.add(comment.getKey())) {
+        merged.add(comment);
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      if (keys.add(get(i).getKey())) {
+        merged.add(get(i));
+      }
+    }
+    merged.sort(Comment.NEWEST_FIRST);
+
+    head = 0;
+    size = Math.min(merged.size(), ring.length);
+    for (int i = 0; i < ring.length; i++) {
+      ring[i] = i < size ? merged.get(i) : null;
+    }
+    complete = newest.size() < ring.length && merged.size() <= ring.length;
+    filled = true;
+    filledAt = System.nanoTime();
+  }
+
+  /**
+   * Fills the ring from {@code newest} if it was last filled more than {@code maxAgeMillis} ago,
+   * or never. Only one caller at a time fills it, and the others go on with the comments held.
+   *
+   * @param newest Reads the newest comments, as {@link #fill} takes them. Called without any lock
+   *     held.
+   * @return Whether the ring was filled.
+   */
+  public boolean refreshIfOlderThan(long maxAgeMillis, Supplier<List<Comment>> newest) {
+    synchronized (this) {
+      if (filled && System.nanoTime() - filledAt <= TimeUnit.MILLISECONDS.toNanos(maxAgeMillis)) {
+        return false;
+      }
+    }
+    if (!refreshing.compareAndSet(false, true)) {
+      return false;
+    }
+    try {
+      fill(newest.get());
+      return true;
+    } finally {
+      refreshing.set(false);
+    }
+  }
+
+  /**
+   * Adds a newly posted comment. It is usually the newest one, but one posted by a slower request
+   * is put in its place further back.
+   */
+  public synchronized void add(Comment comment) {
+    if (comment == null) {
+      throw new IllegalArgumentException("comment cannot be null");
+    }
+
+    int position = 0;
+    while (position < size && Comment.NEWEST_FIRST.compare(get(position), comment) < 0) {
+      position++;
+    }
+    if (size == ring.length) {
+      complete = false;
+      if (position == size) {
+        // Older than everything held, so it belongs to the part left to Datastore.
+        return;
+      }
+      size--;
+    }
+
+    // Open a slot in front of the newest comment and move the newer comments up into it.
+    head = (head + ring.length - 1) % ring.length;
+    for (int i = 0; i < position; i++) {
+      ring[(head + i) % ring.length] = get(i + 1);
+    }
+    ring[(head + position) % ring.length] = comment;
+    size++;
+  }
+
+  /**
+   * Returns the page of up to {@code limit} comments starting at {@code cursor}, or at the newest
+   * comment if {@code cursor} is null. Returns null if some of the page is older than the held
+   * comments and has to be read from Datastore instead.
+   */
+  public List<Comment> page(CommentCursor cursor, int limit) {
+    List<Comment> page;
+    synchronized (this) {
+      int start = cursor != null ? indexOf(cursor) : 0;
+      int end = start + limit;
+      if (end > size && !complete) {
+        page = null;
+      } else {
+        end = Math.min(end, size);
+        page = new ArrayList<>(Math.max(end - start, 0));
+        for (int i = start; i < end; i++) {
+          page.add(get(i));
+        }
+      }
+    }
+
+    if (page == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return Collections.unmodifiableList(page);
+  }
+
+  /**
+   * Returns how many pages were read from memory.
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns how many pages had to be read from Datastore.
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the share of pages read from memory, from 0 to 1, or 0 if no page was read yet.
+   */
+  public double getHitRate() {
+    long hits = getHits();
+    long total = hits + getMisses();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  /**
+   * Returns the position of the first comment after the cursor.
+   */
+  private int indexOf(CommentCursor cursor) {
+    // Binary search, since the held comments are in the order cursors follow.
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (cursor.precedes(get(mid))) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+
+  private Comment get(int i) {
+    return ring[(head + i) % ring.length];
+  }
+}
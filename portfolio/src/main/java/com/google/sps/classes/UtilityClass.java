@@ -15,16 +15,154 @@
 package com.google.sps.classes;
 
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Utility methods used across classes.
  */
 public final class UtilityClass {
+  // Gson is thread-safe once built, so every endpoint shares one. Its adapters are looked up once
+  // here rather than on the first request that needs them.
+  private static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapter(UserAuthentication.class, new UserAuthenticationAdapter().nullSafe())
+      .registerTypeAdapter(Comment.class, new CommentAdapter().nullSafe())
+      .create();
+
+  static {
+    GSON.getAdapter(UserAuthentication.class);
+    GSON.getAdapter(Comment.class);
+    GSON.getAdapter(String.class);
+  }
+
+  private UtilityClass() {}
+
   /**
    * Converts objects to JSON using GSON class.
    */
   public static String convertToJsonUsingGson(Object object) {
-    Gson gson = new Gson();
-    return gson.toJson(object);
+    return GSON.toJson(object);
+  }
+
+  /**
+   * Writes {@code object} as UTF-8 JSON straight to {@code out}, without building the whole
+   * string first. {@code out} is flushed but left open.
+   */
+  public static void writeJson(Object object, OutputStream out) throws IOException {
+    JsonWriter writer = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    if (object == null) {
+      writer.nullValue();
+    } else {
+      GSON.toJson(object, object.getClass(), writer);
+    }
+    writer.flush();
+  }
+
+  /**
+   * Reads an object of type {@code type} from {@code json}.
+   *
+   * @throws JsonParseException If {@code json} is not valid JSON for {@code type}.
+   */
+  public static <T> T fromJson(String json, Class<T> type) {
+    return GSON.fromJson(json, type);
+  }
+
+  /**
+   * Writes {@code UserAuthentication}s field by field, without reflection.
+   */
+  private static final class UserAuthenticationAdapter extends TypeAdapter<UserAuthentication> {
+    @Override
+    public void write(JsonWriter out, UserAuthentication user) throws IOException {
+      out.beginObject();
+      out.name("redirectUrl").value(user.redirectUrl);
+      out.name("loginStatus").value(user.loginStatus);
+      out.endObject();
+    }
+
+    @Override
+    public UserAuthentication read(JsonReader in) throws IOException {
+      UserAuthentication user = new UserAuthentication();
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (name.equals("redirectUrl")) {
+          user.redirectUrl = in.nextString();
+        } else if (name.equals("loginStatus")) {
+          user.loginStatus = in.nextBoolean();
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+      return user;
+    }
+  }
+
+  /**
+   * Writes a {@code Comment} as a record of its key name and properties, and reads it back.
+   */
+  private static final class CommentAdapter extends TypeAdapter<Comment> {
+    @Override
+    public void write(JsonWriter out, Comment comment) throws IOException {
+      out.beginObject();
+      out.name("key").value(comment.getKey().getName());
+      out.name("firstName").value(comment.getFirstName());
+      out.name("lastName").value(comment.getLastName());
+      out.name("comment").value(comment.getText());
+      out.name("timestamp").value(comment.getTimestamp());
+      out.endObject();
+    }
+
+    @Override
+    public Comment read(JsonReader in) throws IOException {
+      String key = null;
+      String firstName = null;
+      String lastName = null;
+      String text = null;
+      long timestamp = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "key":
+            key = readString(in);
+            break;
+          case "firstName":
+            firstName = readString(in);
+            break;
+          case "lastName":
+            lastName = readString(in);
+            break;
+          case "comment":
+            text = readString(in);
+            break;
+          case "timestamp":
+            timestamp = in.nextLong();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      if (key == null) {
+        throw new JsonParseException("Comment has no key");
+      }
+      return Comment.of(key, firstName, lastName, text, timestamp);
+    }
+
+    private static String readString(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      return in.nextString();
+    }
   }
 }
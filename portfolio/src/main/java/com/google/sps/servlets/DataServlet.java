@@ -16,49 +16,76 @@ package com.google.sps.servlets;
 
 import com.google.appengine.api.datastore.DatastoreService;
 import com.google.appengine.api.datastore.DatastoreServiceFactory;
-import com.google.appengine.api.datastore.Entity;
-import com.google.appengine.api.datastore.FetchOptions;
-import com.google.appengine.api.datastore.Query;
-import com.google.appengine.api.datastore.Query.SortDirection;
-import com.google.appengine.api.datastore.PreparedQuery;
-import com.google.sps.classes.UtilityClass;
+import com.google.sps.classes.Comment;
+import com.google.sps.classes.CommentIngestQueue;
+import com.google.sps.classes.CommentPages;
+import com.google.sps.classes.RecentComments;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.util.ArrayList;
-import java.util.List;
 
 /** Servlet that allows client to post a comment and see 
     previously made comments by other clients */
 @WebServlet("/data")
 public class DataServlet extends HttpServlet {
+  private static final int INGEST_CAPACITY = 1000;
+  private static final int INGEST_BATCH_SIZE = 100;
+  private static final int RECENT_CAPACITY = 100;
+  // How long an instance shows the newest comments it holds before it reads them again, to pick
+  // up those posted to other instances. Each instance that is being read queries Datastore at most
+  // this often for its first pages, and comments from other instances show up at most this late.
+  private static final long RECENT_MAX_STALE_MILLIS = 5000;
 
   DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
 
+  // The newest comments, so that most pages never reach Datastore.
+  private final RecentComments recent = new RecentComments(RECENT_CAPACITY);
+
+  private final CommentPages pages = new CommentPages(datastore, recent, RECENT_MAX_STALE_MILLIS);
+
+  // Writes posted comments to Datastore in batches. Created in {@code init} because opening its
+  // spill file can fail.
+  private CommentIngestQueue ingestQueue;
+
   @Override
-  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    List<String> comments = new ArrayList<>();
+  public void init() throws ServletException {
+    // On App Engine the temporary directory is held in the instance's memory, so the spill file
+    // only carries comments over an orderly restart, not a crash.
+    Path spillFile = Paths.get(System.getProperty("java.io.tmpdir"), "comment-spill.log");
+    try {
+      ingestQueue = new CommentIngestQueue(DatastoreServiceFactory.getAsyncDatastoreService(),
+          spillFile, INGEST_CAPACITY, INGEST_BATCH_SIZE);
+    } catch (IOException e) {
+      throw new ServletException("Could not open the comment spill file", e);
+    }
 
-    // Prepares results and sorts them in descending order.
-    Query query = new Query("entry").addSort("timestamp", SortDirection.DESCENDING);
-    PreparedQuery results = datastore.prepare(query);
-    // TODO(aabundis): Find efficient way other than clearing arrayList and then filling up again.
-    comments.clear();
+    // Loads the newest comments once the ones left in the spill file have been written.
+    pages.refreshRecent();
+  }
 
+  /**
+   * Returns one page of comments, newest first, with the cursor to pass back as {@code cursor} for
+   * the page after it. The page size comes from {@code max} and is capped at
+   * {@code CommentPages.MAX_PAGE_SIZE}.
+   */
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
     int limit = numCommentsValueStringToInt(request.getParameter("max"));
-    for (Entity entity : results.asList(FetchOptions.Builder.withLimit(limit))) {
-      String comment = (String) entity.getProperty("comment");
-      String firstN = (String) entity.getProperty("firstName");
-      String lastN = (String) entity.getProperty("lastName");
-      comments.add(firstN + " " + lastN + ":\n" + comment);
+    CommentPages.Page page;
+    try {
+      page = pages.read(request.getParameter("cursor"), limit);
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid cursor.");
+      return;
     }
-    // Use convertToJsonUsingGson() function in UtilityClass.
-    String json = UtilityClass.convertToJsonUsingGson(comments);
-    // Send the JSON as the response.
-    response.setContentType("application/json;");
-    response.getWriter().println(json);
+    // Send the JSON as the response, straight from each comment's pre-rendered bytes.
+    response.setContentType("application/json; charset=UTF-8");
+    page.writeJson(response.getOutputStream());
   }
 
   @Override
@@ -68,17 +95,28 @@ public class DataServlet extends HttpServlet {
     String firstName = request.getParameter("firstName");
     String lastName = request.getParameter("lastName");
     long timestamp = System.currentTimeMillis();
-    // Creates an Entity for each comment entry.
-    Entity entryEntity = new Entity("entry");
-    entryEntity.setProperty("firstName", firstName);
-    entryEntity.setProperty("lastName", lastName);
-    entryEntity.setProperty("comment", comment);
-    entryEntity.setProperty("timestamp", timestamp);
-    datastore.put(entryEntity);
+    // Starts writing the entry to Datastore, without waiting for it, and shows it right away.
+    Comment entry = Comment.create(firstName, lastName, comment, timestamp);
+    if (!ingestQueue.add(entry)) {
+      response.sendError(
+          HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many comments, try again.");
+      return;
+    }
+    recent.add(entry);
     // Redirect to comments page to visualize comment.
     response.sendRedirect("/comments.html");
   }
 
+  @Override
+  public void destroy() {
+    try {
+      ingestQueue.close();
+    } catch (IOException e) {
+      // Anything not yet written is still in the spill file for the next start.
+      log("Could not close the comment ingest queue", e);
+    }
+  }
+
   /**
    * Converts the string declared as value for each of the selections in the button 
    * group in the comments.html file.
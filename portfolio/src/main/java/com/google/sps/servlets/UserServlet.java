@@ -49,9 +49,8 @@ public class UserServlet extends HttpServlet {
         userService.createLoginURL(redirectUrl);
     user.loginStatus = status ? true : false;
  
-    // Use convertToJsonUsingGson() function in UtilityClass to convert and send JSON as response.
-    String json = UtilityClass.convertToJsonUsingGson(user);
-    response.setContentType("application/json;");
-    response.getWriter().println(json);
+    // Use writeJson() function in UtilityClass to stream the JSON as response.
+    response.setContentType("application/json; charset=UTF-8");
+    UtilityClass.writeJson(user, response.getOutputStream());
   }
 }
@@ -35,16 +35,45 @@ function loadPage(maxNumComments) {
   showComments(maxNumComments);
 }
 
+// Page size picked by the user and the cursor of the page after the last one shown.
+let commentsPageSize;
+let nextCommentsCursor = null;
+
 /**
  * Appends previously made comments that populated the servlet as children list elements to the page.
  */
 function showComments(maxNumComments) {
-  fetch('/data?max=' + maxNumComments).then(response => response.json()).then((commentsJson) => {
+  commentsPageSize = maxNumComments;
+  document.getElementById('content-container').innerHTML = '';
+  fetchComments(null);
+}
+
+/**
+ * Appends the page of comments after the ones already shown.
+ */
+function showMoreComments() {
+  if (nextCommentsCursor) {
+    fetchComments(nextCommentsCursor);
+  }
+}
+
+/**
+ * Fetches the page of comments starting at the given cursor, or the newest page if it is null,
+ * and appends it to the list.
+ */
+function fetchComments(cursor) {
+  let url = '/data?max=' + commentsPageSize;
+  if (cursor) {
+    url += '&cursor=' + encodeURIComponent(cursor);
+  }
+  fetch(url).then(response => response.json()).then((page) => {
     const commentsElement = document.getElementById('content-container');
-    commentsElement.innerHTML = '';
-    for (const comment of commentsJson) {
+    for (const comment of page.comments) {
       commentsElement.appendChild(createListElement(comment));
     }
+    nextCommentsCursor = page.cursor || null;
+    const moreBtn = document.getElementById('more-comments-btn');
+    moreBtn.style.display = nextCommentsCursor ? 'block' : 'none';
   });
 }
 
@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CommentCursorTest {
+  // Gives KeyFactory the app it makes keys for.
+  private final LocalServiceTestHelper helper = new LocalServiceTestHelper();
+
+  @Before
+  public void setUp() {
+    helper.setUp();
+  }
+
+  @After
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  @Test
+  public void afterPointsAtLastComment() {
+    Comment first = Comment.of("a", "Ada", "Lovelace", "First", 20);
+    Comment last = Comment.of("b", "Alan", "Turing", "Second", 10);
+
+    CommentCursor cursor = CommentCursor.after(Arrays.asList(first, last));
+
+    Assert.assertEquals(10, cursor.getTimestamp());
+    Assert.assertEquals(last.getKey(), cursor.getKey());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void afterEmptyPage() {
+    CommentCursor.after(Collections.emptyList());
+  }
+
+  @Test
+  public void decodeReadsEncodedCursor() {
+    Comment comment = Comment.of("a", "Ada", "Lovelace", "Hello", 1234);
+    CommentCursor cursor = CommentCursor.after(Arrays.asList(comment));
+
+    CommentCursor decoded = CommentCursor.decode(cursor.encode());
+
+    Assert.assertEquals(1234, decoded.getTimestamp());
+    Assert.assertEquals(comment.getKey(), decoded.getKey());
+  }
+
+  @Test
+  public void decodeRejectsForgedCursors() {
+    String entryKey = KeyFactory.keyToString(KeyFactory.createKey("entry", "a"));
+    String otherKind = KeyFactory.keyToString(KeyFactory.createKey("user", "a"));
+    String child = KeyFactory.keyToString(
+        KeyFactory.createKey(KeyFactory.createKey("entry", "a"), "entry", "b"));
+
+    for (String forged : Arrays.asList("not a cursor!", encode("1234"), encode("1234:"),
+        encode("soon:" + entryKey), encode("1234:" + otherKind), encode("1234:" + child),
+        encode("1234:1000000"))) {
+      try {
+        CommentCursor.decode(forged);
+        Assert.fail("Decoded " + forged);
+      } catch (IllegalArgumentException expected) {
+      }
+    }
+  }
+
+  @Test
+  public void precedesOlderCommentsAndLaterTies() {
+    CommentCursor cursor =
+        CommentCursor.after(Arrays.asList(Comment.of("m", "Ada", "Lovelace", "Cursor", 10)));
+
+    Assert.assertTrue(cursor.precedes(Comment.of("z", "Ada", "Lovelace", "Older", 9)));
+    Assert.assertTrue(cursor.precedes(Comment.of("n", "Ada", "Lovelace", "Tie after", 10)));
+    Assert.assertFalse(cursor.precedes(Comment.of("m", "Ada", "Lovelace", "Itself", 10)));
+    Assert.assertFalse(cursor.precedes(Comment.of("a", "Ada", "Lovelace", "Tie before", 10)));
+    Assert.assertFalse(cursor.precedes(Comment.of("a", "Ada", "Lovelace", "Newer", 11)));
+  }
+
+  private static String encode(String plain) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,144 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.AsyncDatastoreService;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CommentIngestQueueTest {
+  private final LocalServiceTestHelper helper =
+      new LocalServiceTestHelper(new LocalDatastoreServiceTestConfig());
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private DatastoreService datastore;
+  private Path spillFile;
+
+  @Before
+  public void setUp() throws IOException {
+    helper.setUp();
+    datastore = DatastoreServiceFactory.getDatastoreService();
+    spillFile = folder.getRoot().toPath().resolve("spill.log");
+  }
+
+  @After
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  @Test
+  public void closeWaitsForEveryWrite() throws IOException {
+    CommentIngestQueue queue = new CommentIngestQueue(
+        DatastoreServiceFactory.getAsyncDatastoreService(), spillFile, 10, 2);
+
+    for (int i = 0; i < 5; i++) {
+      Assert.assertTrue(queue.add(comment("c" + i, i)));
+    }
+    queue.close();
+
+    Assert.assertEquals(5, count());
+    Assert.assertEquals(0, queue.size());
+    Assert.assertEquals(0, Files.size(spillFile));
+    Assert.assertFalse(queue.add(comment("late", 10)));
+  }
+
+  @Test
+  public void fullQueueRefusesComments() throws IOException {
+    CommentIngestQueue queue = new CommentIngestQueue(failingDatastore(), spillFile, 2, 2);
+
+    Assert.assertTrue(queue.add(comment("a", 1)));
+    Assert.assertTrue(queue.add(comment("b", 2)));
+    Assert.assertFalse(queue.add(comment("c", 3)));
+    Assert.assertEquals(2, queue.size());
+  }
+
+  @Test
+  public void commentsLeftInSpillFileAreWritten() throws IOException {
+    writeSpillFile(Arrays.asList(comment("a", 1), comment("b", 2)));
+
+    CommentIngestQueue queue = new CommentIngestQueue(
+        DatastoreServiceFactory.getAsyncDatastoreService(), spillFile, 10, 1);
+
+    Assert.assertEquals(2, count());
+    Assert.assertEquals(0, queue.size());
+    queue.close();
+    Assert.assertEquals(0, Files.size(spillFile));
+  }
+
+  @Test
+  public void spillFileIsKeptWhileDatastoreFails() throws IOException {
+    List<Comment> left = Arrays.asList(comment("a", 1), comment("b", 2));
+    writeSpillFile(left);
+
+    CommentIngestQueue queue = new CommentIngestQueue(failingDatastore(), spillFile, 10, 1);
+
+    Assert.assertEquals(2, queue.size());
+    Assert.assertTrue(queue.add(comment("c", 3)));
+    queue.close();
+    List<String> lines = Files.readAllLines(spillFile, StandardCharsets.UTF_8);
+    Assert.assertEquals(3, lines.size());
+    Assert.assertEquals(
+        "a", UtilityClass.fromJson(lines.get(0), Comment.class).getKey().getName());
+  }
+
+  private void writeSpillFile(List<Comment> comments) throws IOException {
+    StringBuilder lines = new StringBuilder();
+    for (Comment comment : comments) {
+      lines.append(UtilityClass.convertToJsonUsingGson(comment)).append('\n');
+    }
+    Files.write(spillFile, lines.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private int count() {
+    return datastore.prepare(new Query("entry")).countEntities();
+  }
+
+  private static Comment comment(String keyName, long timestamp) {
+    return Comment.of(keyName, "Ada", "Lovelace", "Comment " + keyName, timestamp);
+  }
+
+  /**
+   * Returns a Datastore whose every call fails.
+   */
+  private static AsyncDatastoreService failingDatastore() {
+    return (AsyncDatastoreService) Proxy.newProxyInstance(
+        AsyncDatastoreService.class.getClassLoader(), new Class<?>[] {AsyncDatastoreService.class},
+        (proxy, method, args) -> {
+          throw new IllegalStateException("Datastore is down");
+        });
+  }
+}
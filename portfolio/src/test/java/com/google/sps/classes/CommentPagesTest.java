@@ -0,0 +1,146 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CommentPagesTest {
+  // Newest first, with runs of the same timestamp that pages have to split.
+  private static final List<String> ALL =
+      Arrays.asList("j", "i", "h", "d", "e", "f", "g", "b", "c", "a");
+
+  private final LocalServiceTestHelper helper =
+      new LocalServiceTestHelper(new LocalDatastoreServiceTestConfig());
+
+  private DatastoreService datastore;
+
+  @Before
+  public void setUp() {
+    helper.setUp();
+    datastore = DatastoreServiceFactory.getDatastoreService();
+    for (Comment comment : Arrays.asList(comment("j", 90), comment("i", 80), comment("h", 70),
+        comment("d", 50), comment("e", 50), comment("f", 50), comment("g", 50), comment("b", 30),
+        comment("c", 30), comment("a", 10))) {
+      datastore.put(comment.toEntity());
+    }
+  }
+
+  @After
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  @Test
+  public void pagesCrossFromMemoryToDatastore() {
+    RecentComments recent = new RecentComments(3);
+    CommentPages pages = new CommentPages(datastore, recent, Long.MAX_VALUE);
+    pages.refreshRecent();
+
+    List<String> seen = new ArrayList<>();
+    String cursor = null;
+    int reads = 0;
+    do {
+      CommentPages.Page page = pages.read(cursor, 2);
+      seen.addAll(names(page.getComments()));
+      cursor = page.getCursor();
+      reads++;
+    } while (cursor != null);
+
+    Assert.assertEquals(ALL, seen);
+    // The fifth page is full, so it takes an empty sixth one to tell that there are no more.
+    Assert.assertEquals(6, reads);
+    // Only the first page falls within the ring.
+    Assert.assertEquals(1, recent.getHits());
+    Assert.assertEquals(5, recent.getMisses());
+  }
+
+  @Test
+  public void wholeListFromMemory() {
+    RecentComments recent = new RecentComments(20);
+    CommentPages pages = new CommentPages(datastore, recent, Long.MAX_VALUE);
+    pages.refreshRecent();
+
+    CommentPages.Page first = pages.read(null, 6);
+    CommentPages.Page second = pages.read(first.getCursor(), 6);
+
+    Assert.assertEquals(ALL.subList(0, 6), names(first.getComments()));
+    Assert.assertEquals(ALL.subList(6, 10), names(second.getComments()));
+    Assert.assertNull(second.getCursor());
+    Assert.assertEquals(0, recent.getMisses());
+  }
+
+  @Test
+  public void deepPagesReadWhatDatastoreHoldsNow() {
+    CommentPages pages = new CommentPages(datastore, new RecentComments(1), Long.MAX_VALUE);
+    pages.refreshRecent();
+
+    CommentPages.Page first = pages.read(null, 3);
+    datastore.delete(Comment.of("d", "Ada", "Lovelace", "Comment d", 50).getKey());
+    CommentPages.Page second = pages.read(first.getCursor(), 3);
+
+    Assert.assertEquals(Arrays.asList("e", "f", "g"), names(second.getComments()));
+  }
+
+  @Test
+  public void commentsFromOtherInstancesShowOnceStale() {
+    RecentComments fresh = new RecentComments(5);
+    CommentPages freshPages = new CommentPages(datastore, fresh, Long.MAX_VALUE);
+    freshPages.refreshRecent();
+    RecentComments stale = new RecentComments(5);
+    CommentPages stalePages = new CommentPages(datastore, stale, 0);
+    stalePages.refreshRecent();
+    // Posted here, but not written yet.
+    stale.add(comment("queued", 95));
+
+    datastore.put(comment("elsewhere", 100).toEntity());
+
+    Assert.assertEquals(ALL.subList(0, 2), names(freshPages.read(null, 2).getComments()));
+    Assert.assertEquals(Arrays.asList("elsewhere", "queued"),
+        names(stalePages.read(null, 2).getComments()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void forgedCursorIsRejected() {
+    CommentPages pages = new CommentPages(datastore, new RecentComments(3), Long.MAX_VALUE);
+
+    pages.read("Zm9yZ2Vk", 2);
+  }
+
+  private static Comment comment(String keyName, long timestamp) {
+    return Comment.of(keyName, "Ada", "Lovelace", "Comment " + keyName, timestamp);
+  }
+
+  private static List<String> names(List<Comment> comments) {
+    List<String> names = new ArrayList<>();
+    for (Comment comment : comments) {
+      names.add(comment.getKey().getName());
+    }
+    return names;
+  }
+}
@@ -0,0 +1,177 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecentCommentsTest {
+  // Gives KeyFactory the app it makes keys for.
+  private final LocalServiceTestHelper helper = new LocalServiceTestHelper();
+
+  @Before
+  public void setUp() {
+    helper.setUp();
+  }
+
+  @After
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  @Test
+  public void addPutsCommentInItsPlace() {
+    RecentComments recent = new RecentComments(5);
+    recent.fill(Arrays.asList(comment("c", 30), comment("a", 10)));
+
+    recent.add(comment("d", 40));
+    recent.add(comment("b", 20));
+
+    Assert.assertEquals(Arrays.asList("d", "c", "b", "a"), names(recent.page(null, 5)));
+  }
+
+  @Test
+  public void addDropsOldestWhenFull() {
+    RecentComments recent = new RecentComments(2);
+    recent.fill(Arrays.asList(comment("b", 20), comment("a", 10)));
+
+    recent.add(comment("c", 30));
+    // Older than everything held, so left to Datastore.
+    recent.add(comment("old", 5));
+
+    Assert.assertEquals(Arrays.asList("c", "b"), names(recent.page(null, 2)));
+    // The ring no longer holds every comment, so the rest is not known here.
+    Assert.assertNull(recent.page(null, 3));
+  }
+
+  @Test
+  public void pageResumesAfterCursor() {
+    RecentComments recent = new RecentComments(5);
+    recent.fill(Arrays.asList(comment("d", 30), comment("c", 20), comment("b", 10)));
+
+    List<Comment> first = recent.page(null, 2);
+    List<Comment> second = recent.page(CommentCursor.after(first), 2);
+
+    Assert.assertEquals(Arrays.asList("d", "c"), names(first));
+    // The ring holds every comment there is, so the last page can be short.
+    Assert.assertEquals(Arrays.asList("b"), names(second));
+  }
+
+  @Test
+  public void pageResumesAmongCommentsOfTheSameTimestamp() {
+    RecentComments recent = new RecentComments(5);
+    recent.fill(
+        Arrays.asList(comment("a", 10), comment("b", 10), comment("c", 10), comment("d", 5)));
+
+    List<Comment> first = recent.page(null, 2);
+    List<Comment> second = recent.page(CommentCursor.after(first), 2);
+
+    Assert.assertEquals(Arrays.asList("a", "b"), names(first));
+    Assert.assertEquals(Arrays.asList("c", "d"), names(second));
+  }
+
+  @Test
+  public void pagePastHeldCommentsIsMissed() {
+    RecentComments recent = new RecentComments(3);
+    recent.fill(Arrays.asList(comment("c", 30), comment("b", 20), comment("a", 10)));
+
+    List<Comment> first = recent.page(null, 2);
+    CommentCursor next = CommentCursor.after(first);
+
+    Assert.assertNull(recent.page(next, 2));
+    Assert.assertEquals(Arrays.asList("a"), names(recent.page(next, 1)));
+    Assert.assertEquals(2, recent.getHits());
+    Assert.assertEquals(1, recent.getMisses());
+    Assert.assertEquals(2.0 / 3, recent.getHitRate(), 1e-9);
+  }
+
+  @Test
+  public void fillKeepsCommentsNotWrittenYet() {
+    RecentComments recent = new RecentComments(3);
+    recent.fill(Arrays.asList(comment("a", 10)));
+    recent.add(comment("posted here", 30));
+
+    // Another instance's comment is written, but ours is still queued.
+    recent.fill(Arrays.asList(comment("posted elsewhere", 20), comment("a", 10)));
+
+    Assert.assertEquals(Arrays.asList("posted here", "posted elsewhere", "a"),
+        names(recent.page(null, 3)));
+  }
+
+  @Test
+  public void fillDropsCommentsPastCapacity() {
+    RecentComments recent = new RecentComments(2);
+    recent.fill(Collections.emptyList());
+    recent.add(comment("posted here", 15));
+
+    recent.fill(Arrays.asList(comment("b", 20), comment("a", 10)));
+
+    Assert.assertEquals(Arrays.asList("b", "posted here"), names(recent.page(null, 2)));
+    Assert.assertNull(recent.page(null, 3));
+  }
+
+  @Test
+  public void refreshOnlyOnceOlderThanMaxAge() throws InterruptedException {
+    RecentComments recent = new RecentComments(3);
+    List<Comment> newest = Arrays.asList(comment("a", 10));
+
+    Assert.assertTrue(recent.refreshIfOlderThan(Long.MAX_VALUE, () -> newest));
+    Assert.assertFalse(recent.refreshIfOlderThan(Long.MAX_VALUE, () -> {
+      throw new AssertionError("Refreshed a fresh ring");
+    }));
+
+    Thread.sleep(2);
+    Assert.assertTrue(recent.refreshIfOlderThan(1, () -> newest));
+    Assert.assertEquals(Arrays.asList("a"), names(recent.page(null, 3)));
+  }
+
+  @Test
+  public void failedRefreshCanBeRetried() {
+    RecentComments recent = new RecentComments(3);
+
+    try {
+      recent.refreshIfOlderThan(0, () -> {
+        throw new IllegalStateException("Datastore is down");
+      });
+      Assert.fail();
+    } catch (IllegalStateException expected) {
+    }
+
+    Assert.assertTrue(recent.refreshIfOlderThan(0, () -> Arrays.asList(comment("a", 10))));
+  }
+
+  private static Comment comment(String keyName, long timestamp) {
+    return Comment.of(keyName, "Ada", "Lovelace", "Comment " + keyName, timestamp);
+  }
+
+  private static List<String> names(List<Comment> comments) {
+    List<String> names = new ArrayList<>();
+    for (Comment comment : comments) {
+      names.add(comment.getKey().getName());
+    }
+    return names;
+  }
+}
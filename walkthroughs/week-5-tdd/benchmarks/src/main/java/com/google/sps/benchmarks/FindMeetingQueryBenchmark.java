@@ -0,0 +1,113 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.benchmarks;
+
+import com.google.sps.AttendeeCalendarIndex;
+import com.google.sps.AvailabilityStrategy;
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@code FindMeetingQuery.query} on synthetic calendars. Throughput mode reports queries
+ * per second and sample mode reports latency percentiles. Add {@code -prof gc} to the command line
+ * to also report the allocation rate.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FindMeetingQueryBenchmark {
+  // Cycle through a fixed set of requests so that one lucky request doesn't dominate the results.
+  private static final int REQUEST_COUNT = 1024;
+
+  /** The number of people in the company. */
+  @Param({"100", "1000"})
+  public int attendees;
+
+  /** The number of events on the calendar. */
+  @Param({"1000", "10000", "50000"})
+  public int events;
+
+  /** The longest event in minutes. Longer events overlap more. */
+  @Param({"30", "120"})
+  public int maxEventMinutes;
+
+  /** The number of required attendees of each meeting. */
+  @Param({"2", "10"})
+  public int meetingSize;
+
+  /** The length of each requested meeting in minutes. */
+  @Param({"30", "60"})
+  public int meetingMinutes;
+
+  @Param({"SWEEP", "BITSET", "AUTO"})
+  public AvailabilityStrategy strategy;
+
+  private List<Event> calendar;
+  private AttendeeCalendarIndex index;
+  private MeetingRequest[] requests;
+  private FindMeetingQuery query;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SyntheticCalendar generator = new SyntheticCalendar(attendees, 42);
+    calendar = generator.events(events, maxEventMinutes, 4);
+    index = AttendeeCalendarIndex.of(calendar);
+    requests = generator.requests(REQUEST_COUNT, meetingSize, meetingMinutes);
+    query = new FindMeetingQuery(strategy);
+  }
+
+  /**
+   * Queries the prebuilt index, which only reads the busy times of the meeting's attendees.
+   */
+  @Benchmark
+  public Collection<TimeRange> queryIndex() {
+    return query.query(index, nextRequest());
+  }
+
+  /**
+   * Queries by scanning every event, as the servlets did before the index existed. The strategy
+   * has no effect here.
+   */
+  @Benchmark
+  public Collection<TimeRange> queryEvents() {
+    return query.query(calendar, nextRequest());
+  }
+
+  private MeetingRequest nextRequest() {
+    MeetingRequest request = requests[next];
+    next = (next + 1) % REQUEST_COUNT;
+    return request;
+  }
+}
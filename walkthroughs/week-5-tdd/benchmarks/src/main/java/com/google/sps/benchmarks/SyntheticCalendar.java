@@ -0,0 +1,77 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible calendars and meeting requests for benchmarks.
+ */
+final class SyntheticCalendar {
+  private final Random random;
+  private final String[] people;
+
+  /**
+   * Creates a generator for a company of {@code attendees} people. The same {@code seed} always
+   * produces the same calendars.
+   */
+  SyntheticCalendar(int attendees, long seed) {
+    this.random = new Random(seed);
+    this.people = new String[attendees];
+    for (int i = 0; i < attendees; i++) {
+      people[i] = "Person " + i;
+    }
+  }
+
+  /**
+   * Returns {@code count} events spread over the day. Each event lasts from 5 minutes up to
+   * {@code maxEventMinutes} and has from one up to {@code maxAttendeesPerEvent} people, so larger
+   * values mean more overlap.
+   */
+  List<Event> events(int count, int maxEventMinutes, int maxAttendeesPerEvent) {
+    List<Event> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int duration = 5 + random.nextInt(Math.max(maxEventMinutes - 4, 1));
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration() - duration + 1);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          pickPeople(1 + random.nextInt(maxAttendeesPerEvent))));
+    }
+    return events;
+  }
+
+  /**
+   * Returns {@code count} requests for meetings of {@code duration} minutes between
+   * {@code attendees} people each.
+   */
+  MeetingRequest[] requests(int count, int attendees, int duration) {
+    MeetingRequest[] requests = new MeetingRequest[count];
+    for (int i = 0; i < count; i++) {
+      requests[i] = new MeetingRequest(pickPeople(attendees), duration);
+    }
+    return requests;
+  }
+
+  private List<String> pickPeople(int count) {
+    List<String> picked = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      picked.add(people[random.nextInt(people.length)]);
+    }
+    return picked;
+  }
+}
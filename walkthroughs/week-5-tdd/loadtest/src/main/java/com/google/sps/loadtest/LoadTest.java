@@ -0,0 +1,331 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.loadtest;
+
+import com.google.gson.Gson;
+import com.google.sps.Event;
+import com.google.sps.Events;
+import com.google.sps.MeetingRequest;
+import com.google.sps.servlets.GetEventsServlet;
+import com.google.sps.servlets.QueryServlet;
+import com.google.sps.servlets.QueryStatsServlet;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+
+/**
+ * Runs the scheduler's servlets in an embedded Jetty server and measures them under concurrent
+ * load from the same JVM. Every client thread sends one request at a time. By default it sends the
+ * next one as soon as the answer has been read, so throughput is what the server sustains at that
+ * concurrency. Given a {@code rate}, the clients send on a fixed schedule instead, and a request
+ * that starts late because the one before it was slow is timed from when it was due, so that
+ * latencies under saturation are not understated.
+ */
+public final class LoadTest {
+  // Latencies are recorded in microseconds, with three significant digits.
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  /**
+   * The counters served by {@code QueryStatsServlet}.
+   */
+  private static final class CacheStats {
+    long hits;
+    long misses;
+  }
+
+  /**
+   * The latencies and errors of one endpoint.
+   */
+  private static final class Endpoint {
+    private final String path;
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+
+    Endpoint(String path) {
+      this.path = path;
+    }
+  }
+
+  private final LoadTestOptions options;
+  private final Endpoint query = new Endpoint("/query");
+  private final Endpoint getEvents = new Endpoint("/get-events");
+  private final List<byte[]> requestBodies;
+  private String baseUrl;
+
+  private LoadTest(LoadTestOptions options) {
+    this.options = options;
+    this.requestBodies = requestBodies(options.distinctRequests, options.seed);
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoadTestOptions options = LoadTestOptions.parse(args);
+    // Keep one pooled keep-alive connection per client thread.
+    System.setProperty("http.maxConnections", String.valueOf(options.threads));
+    new LoadTest(options).run();
+  }
+
+  private void run() throws Exception {
+    Server server = new Server(0);
+    ServletContextHandler context = new ServletContextHandler();
+    context.addServlet(QueryServlet.class, query.path);
+    context.addServlet(GetEventsServlet.class, getEvents.path);
+    context.addServlet(QueryStatsServlet.class, "/query-stats");
+    server.setHandler(context);
+    server.start();
+    try {
+      baseUrl = "http://localhost:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+      System.out.println("Serving on " + baseUrl + " with " + options);
+
+      if (options.warmupSeconds > 0) {
+        System.out.println("Warming up for " + options.warmupSeconds + "s");
+        load(options.warmupSeconds);
+      }
+      // Start the measurement with empty histograms and counters.
+      query.recorder.reset();
+      getEvents.recorder.reset();
+      query.errors.reset();
+      getEvents.errors.reset();
+
+      System.out.println("Measuring for " + options.durationSeconds + "s");
+      CacheStats before = cacheStats();
+      long start = System.nanoTime();
+      load(options.durationSeconds);
+      double seconds = (System.nanoTime() - start) / 1e9;
+      CacheStats after = cacheStats();
+
+      writeReport(seconds, after.hits - before.hits, after.misses - before.misses);
+    } finally {
+      server.stop();
+    }
+  }
+
+  /**
+   * Sends requests from every client thread for {@code seconds}.
+   */
+  private void load(int seconds) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+    ExecutorService clients = Executors.newFixedThreadPool(options.threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < options.threads; i++) {
+        futures.add(clients.submit(() -> {
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          long interval = options.rate > 0 ? (long) (1e9 * options.threads / options.rate) : 0;
+          // Spread the clients' schedules over one interval.
+          long due = System.nanoTime() + (interval > 0 ? random.nextLong(interval) : 0);
+          while (due < deadline) {
+            long now = System.nanoTime();
+            if (interval > 0) {
+              if (due > now) {
+                LockSupport.parkNanos(due - now);
+                continue;
+              }
+            } else {
+              due = now;
+            }
+            if (random.nextDouble() < options.getEventsRatio) {
+              send(getEvents, null, due);
+            } else {
+              send(query, requestBodies.get(random.nextInt(requestBodies.size())), due);
+            }
+            due = interval > 0 ? due + interval : System.nanoTime();
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      clients.shutdown();
+    }
+  }
+
+  /**
+   * Sends one request to {@code endpoint}, as a POST of {@code body} or as a GET if it is null, and
+   * records how long it took from {@code due}, when it should have been sent, until the whole
+   * response was read.
+   */
+  private void send(Endpoint endpoint, byte[] body, long due) {
+    try {
+      HttpURLConnection connection =
+          (HttpURLConnection) new URL(baseUrl + endpoint.path).openConnection();
+      if (body != null) {
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream out = connection.getOutputStream()) {
+          out.write(body);
+        }
+      } else if (options.gzip) {
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+      }
+
+      int status = connection.getResponseCode();
+      // Reading to the end lets the connection be reused for the next request.
+      try (InputStream in =
+          status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+        drain(in);
+      }
+      if (status != HttpURLConnection.HTTP_OK) {
+        endpoint.errors.increment();
+      }
+    } catch (IOException e) {
+      endpoint.errors.increment();
+    }
+    endpoint.recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due));
+  }
+
+  private CacheStats cacheStats() throws IOException {
+    HttpURLConnection connection =
+        (HttpURLConnection) new URL(baseUrl + "/query-stats").openConnection();
+    try (Reader reader =
+        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+      return new Gson().fromJson(reader, CacheStats.class);
+    }
+  }
+
+  private void writeReport(double seconds, long cacheHits, long cacheMisses) throws IOException {
+    File file = new File(options.report);
+    if (file.getParentFile() != null) {
+      file.getParentFile().mkdirs();
+    }
+
+    Histogram queryLatencies = query.recorder.getIntervalHistogram();
+    Histogram getEventsLatencies = getEvents.recorder.getIntervalHistogram();
+    try (PrintStream report =
+        new PrintStream(new FileOutputStream(file), false, StandardCharsets.UTF_8.name())) {
+      report.println("Load test of QueryServlet and GetEventsServlet");
+      report.println("Options: " + options);
+      report.println("JVM: " + System.getProperty("java.vm.name") + " "
+          + System.getProperty("java.version") + " "
+          + ManagementFactory.getRuntimeMXBean().getInputArguments());
+      report.println();
+      printCache(report, cacheHits, cacheMisses);
+      printEndpoint(report, query, queryLatencies, seconds, true);
+      printEndpoint(report, getEvents, getEventsLatencies, seconds, true);
+    }
+
+    printCache(System.out, cacheHits, cacheMisses);
+    printEndpoint(System.out, query, queryLatencies, seconds, false);
+    printEndpoint(System.out, getEvents, getEventsLatencies, seconds, false);
+    System.out.println("Report written to " + file.getPath());
+  }
+
+  /**
+   * Prints how many of the measured queries were answered by QueryServlet's cache rather than by
+   * running them, since a cached answer says nothing about the query implementation.
+   */
+  private static void printCache(PrintStream out, long hits, long misses) {
+    long total = hits + misses;
+    out.printf("/query cache: %d hits, %d misses, %.1f%% hit rate%n", hits, misses,
+        total == 0 ? 0 : 100.0 * hits / total);
+    out.println();
+  }
+
+  private static void printEndpoint(PrintStream out, Endpoint endpoint, Histogram latencies,
+      double seconds, boolean distribution) {
+    long count = latencies.getTotalCount();
+    out.printf("%s: %d requests, %.1f requests/s, %d errors%n", endpoint.path, count,
+        count / seconds, endpoint.errors.sum());
+    if (count == 0) {
+      out.println();
+      return;
+    }
+    out.printf("  latency (ms): p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f%n",
+        latencies.getValueAtPercentile(50) / 1000.0, latencies.getValueAtPercentile(90) / 1000.0,
+        latencies.getValueAtPercentile(99) / 1000.0, latencies.getValueAtPercentile(99.9) / 1000.0,
+        latencies.getMaxValue() / 1000.0);
+    if (distribution) {
+      out.println("  percentile distribution (ms):");
+      latencies.outputPercentileDistribution(out, 1000.0);
+    }
+    out.println();
+  }
+
+  /**
+   * Returns the JSON bodies of {@code count} meeting requests between the people of
+   * {@code Events.events}. Each person is left out, required or optional with equal odds, and the
+   * duration is any multiple of 5 minutes up to 8 hours, so that there are millions of different
+   * requests and few of them repeat unless {@code count} is large.
+   */
+  private static List<byte[]> requestBodies(int count, long seed) {
+    TreeSet<String> people = new TreeSet<>();
+    for (Event event : Events.events) {
+      people.addAll(event.getAttendees());
+    }
+    List<String> names = new ArrayList<>(people);
+
+    Random random = new Random(seed);
+    Gson gson = new Gson();
+    List<byte[]> bodies = new ArrayList<>(count);
+    while (bodies.size() < count) {
+      List<String> attendees = new ArrayList<>();
+      List<String> optionalAttendees = new ArrayList<>();
+      for (String name : names) {
+        int role = random.nextInt(3);
+        if (role == 1) {
+          attendees.add(name);
+        } else if (role == 2) {
+          optionalAttendees.add(name);
+        }
+      }
+      if (attendees.isEmpty() && optionalAttendees.isEmpty()) {
+        continue;
+      }
+      MeetingRequest request = new MeetingRequest(attendees, 5 * (1 + random.nextInt(96)));
+      for (String name : optionalAttendees) {
+        request.addOptionalAttendee(name);
+      }
+      bodies.add(gson.toJson(request).getBytes(StandardCharsets.UTF_8));
+    }
+    return bodies;
+  }
+
+  private static void drain(InputStream in) throws IOException {
+    if (in == null) {
+      return;
+    }
+    byte[] buffer = new byte[8192];
+    while (in.read(buffer) >= 0) {
+      // Discard the body.
+    }
+  }
+}
@@ -0,0 +1,96 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.loadtest;
+
+/**
+ * The command line options of {@code LoadTest}, each given as {@code --name=value}.
+ */
+final class LoadTestOptions {
+  int threads = 16;
+  int warmupSeconds = 10;
+  int durationSeconds = 30;
+  double getEventsRatio = 0.1;
+  boolean gzip = false;
+  // Far more than the 1024 answers QueryServlet caches, so that most queries are run.
+  int distinctRequests = 100_000;
+  // Requests per second over all clients, or 0 to send each request as soon as the last is read.
+  double rate = 0;
+  long seed = 1;
+  String report = "target/loadtest-report.txt";
+
+  /**
+   * Parses {@code args}, keeping the default of every option that isn't given.
+   */
+  static LoadTestOptions parse(String[] args) {
+    LoadTestOptions options = new LoadTestOptions();
+    for (String arg : args) {
+      int equals = arg.indexOf('=');
+      if (!arg.startsWith("--") || equals < 0) {
+        throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+      }
+      String name = arg.substring(2, equals);
+      String value = arg.substring(equals + 1);
+      switch (name) {
+        case "threads":
+          options.threads = positive(name, Integer.parseInt(value));
+          break;
+        case "warmup":
+          options.warmupSeconds = Integer.parseInt(value);
+          break;
+        case "duration":
+          options.durationSeconds = positive(name, Integer.parseInt(value));
+          break;
+        case "get-events-ratio":
+          options.getEventsRatio = Double.parseDouble(value);
+          break;
+        case "gzip":
+          options.gzip = Boolean.parseBoolean(value);
+          break;
+        case "distinct-requests":
+          options.distinctRequests = positive(name, Integer.parseInt(value));
+          break;
+        case "rate":
+          options.rate = Double.parseDouble(value);
+          if (options.rate < 0) {
+            throw new IllegalArgumentException(name + " cannot be negative");
+          }
+          break;
+        case "seed":
+          options.seed = Long.parseLong(value);
+          break;
+        case "report":
+          options.report = value;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option: " + name);
+      }
+    }
+    return options;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("threads=%d, warmup=%ds, duration=%ds, get-events-ratio=%.2f, gzip=%b, "
+        + "distinct-requests=%d, rate=%.1f, seed=%d", threads, warmupSeconds, durationSeconds,
+        getEventsRatio, gzip, distinctRequests, rate, seed);
+  }
+
+  private static int positive(String name, int value) {
+    if (value <= 0) {
+      throw new IllegalArgumentException(name + " must be positive");
+    }
+    return value;
+  }
+}
@@ -0,0 +1,308 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index from each attendee to the times they are busy. The busy times of an attendee are stored
+ * sorted by start and merged, so that a query only has to look at the people it names instead of
+ * every known {@code Event}. Attendees are looked up by their {@code AttendeeIds}. When most IDs
+ * have busy times they index straight into arrays; when only a few do, as in the index of a single
+ * day out of a large calendar, the IDs are kept in a sorted array and found by binary search, so
+ * that memory grows with the attendees present rather than with every ID ever assigned. Indexes are
+ * considered read-only once built.
+ */
+public final class AttendeeCalendarIndex {
+  private static final MinuteMask NEVER_BUSY = new MinuteMask();
+
+  // Indexes are stored by ID when at least this share of the IDs up to the largest one are used.
+  private static final int DENSE_FACTOR = 4;
+
+  // Sorted IDs of the attendees with busy times, or null if {@code busyBySlot} is indexed by ID.
+  private final int[] ids;
+
+  // Busy times by slot, which is either the attendee ID or the position of the ID in {@code ids}.
+  // When indexed by ID, entries are null for people with no busy times, and IDs past the end of
+  // the array were assigned after the index was built.
+  private final TimeRangeSet[] busyBySlot;
+
+  // The same busy times as one bit per minute, used by {@code AvailabilityStrategy.BITSET}. Each
+  // mask is built the first time it is needed. Threads that race to build one build equal masks,
+  // and masks are safe to share once built, so no lock is needed.
+  private final MinuteMask[] masksBySlot;
+
+  private AttendeeCalendarIndex(int[] ids, TimeRangeSet[] busyBySlot, MinuteMask[] masksBySlot) {
+    this.ids = ids;
+    this.busyBySlot = busyBySlot;
+    this.masksBySlot = masksBySlot;
+  }
+
+  /**
+   * Builds an index over {@code events}.
+   *
+   * @param events The events to index. Must be non-null.
+   */
+  public static AttendeeCalendarIndex of(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty collection instead.");
+    }
+
+    Builder builder = new Builder();
+    for (Event event : events) {
+      builder.add(event);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the number of attendees that have at least one busy time.
+   */
+  public int size() {
+    if (ids != null) {
+      return ids.length;
+    }
+    int size = 0;
+    for (TimeRangeSet busy : busyBySlot) {
+      if (busy != null) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Returns the merged busy times of {@code attendee}, ordered by start. People that the index
+   * knows nothing about are never busy.
+   */
+  public List<TimeRange> getBusyTimes(String attendee) {
+    return Collections.unmodifiableList(getBusySet(attendee).toList());
+  }
+
+  /**
+   * Returns the busy times of {@code attendee} as a {@code TimeRangeSet}.
+   */
+  public TimeRangeSet getBusySet(String attendee) {
+    return getBusySet(AttendeeIds.lookup(attendee));
+  }
+
+  /**
+   * Returns the busy times of the attendee with the given {@code AttendeeIds} ID.
+   */
+  public TimeRangeSet getBusySet(int id) {
+    int slot = slotOf(id);
+    return slot >= 0 ? busyBySlot[slot] : TimeRangeSet.EMPTY;
+  }
+
+  /**
+   * Returns the busy times of the attendee with the given ID as a per-minute mask. The mask must
+   * not be modified.
+   */
+  MinuteMask getBusyMask(int id) {
+    int slot = slotOf(id);
+    if (slot < 0) {
+      return NEVER_BUSY;
+    }
+    MinuteMask mask = masksBySlot[slot];
+    if (mask == null) {
+      mask = MinuteMask.of(busyBySlot[slot]);
+      masksBySlot[slot] = mask;
+    }
+    return mask;
+  }
+
+  /**
+   * Returns a copy of this index in which each attendee ID of {@code changed} has the given busy
+   * times instead. Everyone else shares the busy times and masks of this index, so apart from
+   * copying the arrays of references the cost grows with the number of changed attendees.
+   */
+  AttendeeCalendarIndex withBusySets(Map<Integer, TimeRangeSet> changed) {
+    int[] changedIds = new int[changed.size()];
+    int n = 0;
+    for (int id : changed.keySet()) {
+      changedIds[n++] = id;
+    }
+    Arrays.sort(changedIds);
+
+    // Merge the changed attendees into ours, both in ID order.
+    Entries entries = new Entries(size() + changedIds.length);
+    int j = 0;
+    for (int slot = 0; slot < busyBySlot.length; slot++) {
+      if (busyBySlot[slot] == null) {
+        continue;
+      }
+      int id = ids != null ? ids[slot] : slot;
+      for (; j < changedIds.length && changedIds[j] <= id; j++) {
+        entries.add(changedIds[j], changed.get(changedIds[j]), null);
+      }
+      if (j == 0 || changedIds[j - 1] != id) {
+        entries.add(id, busyBySlot[slot], masksBySlot[slot]);
+      }
+    }
+    for (; j < changedIds.length; j++) {
+      entries.add(changedIds[j], changed.get(changedIds[j]), null);
+    }
+    return entries.build();
+  }
+
+  /**
+   * Returns the slot of the attendee with the given ID, or -1 if they have no busy times.
+   */
+  private int slotOf(int id) {
+    if (ids == null) {
+      return id >= 0 && id < busyBySlot.length && busyBySlot[id] != null ? id : -1;
+    }
+    int slot = Arrays.binarySearch(ids, id);
+    return slot >= 0 ? slot : -1;
+  }
+
+  /**
+   * Attendees and their busy times, added in increasing ID order, from which an index is made.
+   */
+  private static final class Entries {
+    private int[] ids;
+    private TimeRangeSet[] busy;
+    private MinuteMask[] masks;
+    private int length = 0;
+
+    Entries(int expectedSize) {
+      ids = new int[Math.max(expectedSize, 1)];
+      busy = new TimeRangeSet[ids.length];
+      masks = new MinuteMask[ids.length];
+    }
+
+    /**
+     * Adds an attendee with a larger ID than any added so far. Attendees without busy times are
+     * left out. {@code mask} may be null if it hasn't been built yet.
+     */
+    void add(int id, TimeRangeSet set, MinuteMask mask) {
+      if (set.isEmpty()) {
+        return;
+      }
+      if (length == ids.length) {
+        ids = Arrays.copyOf(ids, length * 2);
+        busy = Arrays.copyOf(busy, length * 2);
+        masks = Arrays.copyOf(masks, length * 2);
+      }
+      ids[length] = id;
+      busy[length] = set;
+      masks[length++] = mask;
+    }
+
+    AttendeeCalendarIndex build() {
+      int span = length == 0 ? 0 : ids[length - 1] + 1;
+      if ((long) length * DENSE_FACTOR >= span) {
+        TimeRangeSet[] busyById = new TimeRangeSet[span];
+        MinuteMask[] masksById = new MinuteMask[span];
+        for (int i = 0; i < length; i++) {
+          busyById[ids[i]] = busy[i];
+          masksById[ids[i]] = masks[i];
+        }
+        return new AttendeeCalendarIndex(null, busyById, masksById);
+      }
+      return new AttendeeCalendarIndex(Arrays.copyOf(ids, length), Arrays.copyOf(busy, length),
+          Arrays.copyOf(masks, length));
+    }
+  }
+
+  /**
+   * Collects busy times in any order. Each attendee's times are sorted and merged once, in
+   * {@link #build()}.
+   */
+  public static final class Builder {
+    // Largest time of day that fits in the 16 bits a time gets below.
+    private static final int MAX_TIME = 0xFFFF;
+
+    // Each busy range is packed into one long, attendee ID in the high 32 bits, then start, then
+    // end. Sorting them groups the ranges by attendee in start order, and collecting them costs one
+    // array for the whole builder instead of one per attendee.
+    private long[] packed = new long[16];
+    private int length = 0;
+
+    /**
+     * Marks every attendee of {@code event} as busy while it takes place.
+     */
+    public Builder add(Event event) {
+      TimeRange when = event.getWhen();
+      for (int id : event.getAttendeeIds()) {
+        add(id, when.start(), when.end());
+      }
+      return this;
+    }
+
+    /**
+     * Marks {@code attendee} as busy from {@code start} (inclusive) to {@code end} (exclusive).
+     */
+    public Builder add(String attendee, int start, int end) {
+      return add(AttendeeIds.intern(attendee), start, end);
+    }
+
+    /**
+     * Marks the attendee with the given {@code AttendeeIds} ID as busy from {@code start}
+     * (inclusive) to {@code end} (exclusive). Empty ranges are ignored.
+     */
+    public Builder add(int id, int start, int end) {
+      if (id < 0) {
+        throw new IllegalArgumentException("id cannot be negative");
+      }
+      if (start < 0 || end > MAX_TIME) {
+        throw new IllegalArgumentException("times must be between 0 and " + MAX_TIME);
+      }
+      if (end <= start) {
+        return this;
+      }
+      if (length == packed.length) {
+        packed = Arrays.copyOf(packed, length * 2);
+      }
+      packed[length++] = ((long) id << 32) | ((long) start << 16) | end;
+      return this;
+    }
+
+    public AttendeeCalendarIndex build() {
+      Arrays.sort(packed, 0, length);
+
+      Entries entries = new Entries(16);
+      int i = 0;
+      while (i < length) {
+        int id = (int) (packed[i] >>> 32);
+        int groupEnd = i;
+        while (groupEnd < length && (int) (packed[groupEnd] >>> 32) == id) {
+          groupEnd++;
+        }
+
+        int[] starts = new int[groupEnd - i];
+        int[] ends = new int[starts.length];
+        int size = 0;
+        for (; i < groupEnd; i++) {
+          int start = (int) (packed[i] >>> 16) & MAX_TIME;
+          int end = (int) packed[i] & MAX_TIME;
+          // Extend the previous range when this one overlaps or touches it.
+          if (size > 0 && start <= ends[size - 1]) {
+            ends[size - 1] = Math.max(ends[size - 1], end);
+          } else {
+            starts[size] = start;
+            ends[size++] = end;
+          }
+        }
+        entries.add(id, TimeRangeSet.create(starts, ends, size), null);
+      }
+      return entries.build();
+    }
+  }
+}
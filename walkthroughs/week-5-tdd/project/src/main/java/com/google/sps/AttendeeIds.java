@@ -0,0 +1,177 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary that gives every attendee name a small, dense {@code int} ID. IDs never change once
+ * assigned, so sorted ID arrays can stand in for sets of names: comparing two of them is a merge of
+ * two int arrays instead of a series of hash lookups and {@code String.equals} calls.
+ */
+public final class AttendeeIds {
+  private static final ConcurrentHashMap<String, Integer> idsByName = new ConcurrentHashMap<>();
+
+  // {@code names[id]} is the canonical instance of the name with that ID. Only written while
+  // holding the lock on {@code AttendeeIds.class}. Each slot is filled before its ID is put in
+  // {@code idsByName}, so any thread that has an ID sees its name, and the array is only replaced
+  // by a larger copy when it is full.
+  private static volatile String[] names = new String[64];
+  private static int count = 0;
+
+  private AttendeeIds() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the ID of {@code name}, assigning the next free one if the name is new.
+   */
+  public static int intern(String name) {
+    Integer id = idsByName.get(name);
+    return id != null ? id : assign(name);
+  }
+
+  /**
+   * Returns the ID of {@code name}, or -1 if it has never been interned.
+   */
+  public static int lookup(String name) {
+    Integer id = idsByName.get(name);
+    return id != null ? id : -1;
+  }
+
+  /**
+   * Returns the name with the given {@code id}.
+   */
+  public static String name(int id) {
+    String[] current = names;
+    if (id < 0 || id >= current.length || current[id] == null) {
+      throw new IllegalArgumentException("Unknown attendee ID: " + id);
+    }
+    return current[id];
+  }
+
+  /**
+   * Returns the canonical instance of {@code name}. Keeping only canonical instances means that
+   * each name is stored once no matter how many events mention it.
+   */
+  public static String canonical(String name) {
+    return names[intern(name)];
+  }
+
+  /**
+   * Returns the canonical instance of {@code name} if it has been interned, or {@code name} itself
+   * otherwise. Unlike {@link #canonical}, this never assigns an ID, so it is safe to call on names
+   * from untrusted input.
+   */
+  public static String canonicalIfKnown(String name) {
+    int id = lookup(name);
+    return id >= 0 ? names[id] : name;
+  }
+
+  /**
+   * Returns the number of IDs assigned so far. Every ID is below this number.
+   */
+  public static int size() {
+    synchronized (AttendeeIds.class) {
+      return count;
+    }
+  }
+
+  /**
+   * Returns the sorted, distinct IDs of {@code names}.
+   */
+  public static int[] internAll(Collection<String> names) {
+    int[] ids = new int[names.size()];
+    int length = 0;
+    for (String name : names) {
+      ids[length++] = intern(name);
+    }
+    return sortedDistinct(ids, length);
+  }
+
+  /**
+   * Returns the sorted, distinct IDs of those of {@code names} that have been interned. Unknown
+   * names are left out rather than assigned an ID, so looking names up on behalf of a request
+   * never grows the dictionary. Nobody with an unknown name can be busy.
+   */
+  public static int[] lookupAll(Collection<String> names) {
+    int[] ids = new int[names.size()];
+    int length = 0;
+    for (String name : names) {
+      int id = lookup(name);
+      if (id >= 0) {
+        ids[length++] = id;
+      }
+    }
+    return sortedDistinct(ids, length);
+  }
+
+  /**
+   * Checks if two sorted ID arrays have an ID in common.
+   */
+  public static boolean intersects(int[] a, int[] b) {
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] == b[j]) {
+        return true;
+      }
+      if (a[i] < b[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if the sorted ID array {@code ids} contains {@code id}.
+   */
+  public static boolean contains(int[] ids, int id) {
+    return Arrays.binarySearch(ids, id) >= 0;
+  }
+
+  static int[] sortedDistinct(int[] ids, int length) {
+    Arrays.sort(ids, 0, length);
+    int distinct = 0;
+    for (int i = 0; i < length; i++) {
+      if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+        ids[distinct++] = ids[i];
+      }
+    }
+    return distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+  }
+
+  private static synchronized int assign(String name) {
+    // Another thread may have assigned the name while we waited for the lock.
+    Integer existing = idsByName.get(name);
+    if (existing != null) {
+      return existing;
+    }
+
+    int id = count++;
+    String[] current = names;
+    if (id == current.length) {
+      current = Arrays.copyOf(current, current.length * 2);
+    }
+    current[id] = name;
+    // Publish the name before the ID so that any thread that can see the ID can resolve it.
+    names = current;
+    idsByName.put(name, id);
+    return id;
+  }
+}
@@ -0,0 +1,130 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The time zone of each attendee, as a {@code ZoneOffsetTable}. Attendees without a zone are in
+ * UTC. Converts an attendee's local times to UTC, and finds the times that fall within everyone's
+ * local working hours. Considered read-only once built.
+ */
+public final class AttendeeZones {
+  private final ZoneOffsetTable[] zonesById;
+
+  private AttendeeZones(ZoneOffsetTable[] zonesById) {
+    this.zonesById = zonesById;
+  }
+
+  /**
+   * Returns the zone of {@code attendee}.
+   */
+  public ZoneOffsetTable getZone(String attendee) {
+    return getZone(AttendeeIds.lookup(attendee));
+  }
+
+  /**
+   * Returns the zone of the attendee with the given {@code AttendeeIds} ID.
+   */
+  public ZoneOffsetTable getZone(int id) {
+    ZoneOffsetTable zone = id >= 0 && id < zonesById.length ? zonesById[id] : null;
+    return zone != null ? zone : ZoneOffsetTable.UTC;
+  }
+
+  /**
+   * Converts {@code local}, in minutes since the local epoch of the attendee with the given ID, to
+   * UTC. The result can be added to a {@code DayPartitionedIndex} next to the busy times of people
+   * in other zones.
+   */
+  public EpochMinuteRange toUtc(int attendee, EpochMinuteRange local) {
+    ZoneOffsetTable zone = getZone(attendee);
+    long start = zone.toUtc(local.start());
+    // A range can't come out backwards, even when it ends inside a skipped hour.
+    return EpochMinuteRange.fromStartEnd(start, Math.max(start, zone.toUtc(local.end())));
+  }
+
+  /**
+   * Returns the ranges of {@code horizon}, ordered by start and in UTC epoch minutes, that fall
+   * within the working hours of every one of {@code attendees}. The days of the horizon are UTC
+   * days, while its working hours are read in each attendee's own zone.
+   */
+  public List<EpochMinuteRange> workingOverlap(
+      Collection<String> attendees, CalendarHorizon horizon) {
+    long windowStart = horizon.startMinute();
+    long windowEnd = windowStart + horizon.lengthInMinutes();
+    TimeRange workingHours = horizon.getWorkingHours();
+
+    TimeRangeSet overlap = TimeRangeSet.of(0, horizon.lengthInMinutes());
+    // Names are only looked up, never interned, so that asking about strangers doesn't grow
+    // {@code AttendeeIds}; they have no zone set and are in UTC. Tables are shared per zone, so
+    // each zone is intersected once however many attendees are in it.
+    Set<ZoneOffsetTable> zones = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (String attendee : attendees) {
+      zones.add(getZone(attendee));
+    }
+    for (ZoneOffsetTable zone : zones) {
+      // Offsets are less than a day, so the local days from the one before the horizon to the one
+      // after it cover all of it.
+      TimeRangeSet.Builder working = new TimeRangeSet.Builder(horizon.getDays() + 2);
+      for (long day = horizon.getFirstDay() - 1; day <= horizon.getFirstDay() + horizon.getDays();
+          day++) {
+        long midnight = day * EpochMinuteRange.MINUTES_PER_DAY;
+        long start = Math.max(zone.toUtc(midnight + workingHours.start()), windowStart);
+        long end = Math.min(zone.toUtc(midnight + workingHours.end()), windowEnd);
+        if (start < end) {
+          working.add((int) (start - windowStart), (int) (end - windowStart));
+        }
+      }
+      overlap = overlap.intersection(working.build());
+    }
+
+    List<EpochMinuteRange> ranges = new ArrayList<>(overlap.size());
+    for (int i = 0; i < overlap.size(); i++) {
+      ranges.add(EpochMinuteRange.fromStartEnd(
+          windowStart + overlap.start(i), windowStart + overlap.end(i)));
+    }
+    return ranges;
+  }
+
+  /**
+   * Collects the zones of attendees.
+   */
+  public static final class Builder {
+    private ZoneOffsetTable[] zonesById = new ZoneOffsetTable[16];
+
+    /**
+     * Puts {@code attendee} in {@code zone}.
+     */
+    public Builder set(String attendee, ZoneId zone) {
+      int id = AttendeeIds.intern(attendee);
+      if (id >= zonesById.length) {
+        zonesById = Arrays.copyOf(zonesById, Math.max(zonesById.length * 2, id + 1));
+      }
+      zonesById[id] = ZoneOffsetTable.of(zone);
+      return this;
+    }
+
+    public AttendeeZones build() {
+      return new AttendeeZones(zonesById.clone());
+    }
+  }
+}
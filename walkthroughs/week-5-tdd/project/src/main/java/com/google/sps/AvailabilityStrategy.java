@@ -0,0 +1,80 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * The ways {@code FindMeetingQuery} can combine the busy times of the attendees in an
+ * {@code AttendeeCalendarIndex} into the times when all of them are free. Attendees are given as
+ * {@code AttendeeIds} IDs.
+ */
+public enum AvailabilityStrategy {
+  /**
+   * Merges the sorted busy ranges of every attendee and walks the gaps between them. Cost grows
+   * with the number of busy ranges.
+   */
+  SWEEP {
+    @Override
+    TimeRangeSet findFree(AttendeeCalendarIndex index, int[] attendees, long duration) {
+      return FindMeetingQuery.findGaps(FindMeetingQuery.busyTimes(index, attendees), duration);
+    }
+  },
+
+  /**
+   * ORs together a per-minute busy mask for every attendee and scans for runs of free minutes. Cost
+   * grows with the number of attendees only, which wins for dense calendars.
+   */
+  BITSET {
+    @Override
+    TimeRangeSet findFree(AttendeeCalendarIndex index, int[] attendees, long duration) {
+      MinuteMask busy = new MinuteMask();
+      for (int attendee : attendees) {
+        busy.or(index.getBusyMask(attendee));
+      }
+      return busy.freeRuns(Math.max(duration, 1));
+    }
+  },
+
+  /**
+   * Picks {@link #SWEEP} or {@link #BITSET} for each query depending on how many busy ranges the
+   * attendees have.
+   */
+  AUTO {
+    @Override
+    TimeRangeSet findFree(AttendeeCalendarIndex index, int[] attendees, long duration) {
+      return select(index, attendees).findFree(index, attendees, duration);
+    }
+  };
+
+  /**
+   * Returns the times of day when all of {@code attendees} are free for at least {@code duration}
+   * minutes.
+   */
+  abstract TimeRangeSet findFree(AttendeeCalendarIndex index, int[] attendees, long duration);
+
+  /**
+   * Returns the cheaper concrete strategy for the given attendees. Sorting {@code n} busy ranges
+   * costs about {@code n log n} steps, while the bitset costs a fixed number of word operations per
+   * attendee.
+   */
+  static AvailabilityStrategy select(AttendeeCalendarIndex index, int[] attendees) {
+    long ranges = 0;
+    for (int attendee : attendees) {
+      ranges += index.getBusySet(attendee).size();
+    }
+    long sortCost = ranges * (Long.SIZE - Long.numberOfLeadingZeros(ranges));
+    long bitsetCost = (long) attendees.length * MinuteMask.WORDS;
+    return sortCost > bitsetCost ? BITSET : SWEEP;
+  }
+}
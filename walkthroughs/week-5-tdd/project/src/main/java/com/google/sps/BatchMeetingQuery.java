@@ -0,0 +1,81 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Answers many {@code MeetingRequest}s against the same {@code AttendeeCalendarIndex}. The index is
+ * built once by the caller and shared by every request, and large batches are split across a
+ * {@code ForkJoinPool}.
+ */
+public final class BatchMeetingQuery {
+  // Below this many requests, handing work to other threads costs more than it saves.
+  private static final int PARALLEL_THRESHOLD = 16;
+
+  private final FindMeetingQuery query;
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates a batch query that runs large batches on the common {@code ForkJoinPool}.
+   */
+  public BatchMeetingQuery() {
+    this(new FindMeetingQuery(), ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a batch query.
+   *
+   * @param query The query used for each request. Must be non-null and safe to share.
+   * @param pool The pool used for large batches. Must be non-null.
+   */
+  public BatchMeetingQuery(FindMeetingQuery query, ForkJoinPool pool) {
+    if (query == null) {
+      throw new IllegalArgumentException("query cannot be null");
+    }
+
+    if (pool == null) {
+      throw new IllegalArgumentException("pool cannot be null");
+    }
+
+    this.query = query;
+    this.pool = pool;
+  }
+
+  /**
+   * Returns the answer to each of {@code requests}, in the same order as the requests.
+   */
+  public List<Collection<TimeRange>> query(
+      AttendeeCalendarIndex index, List<MeetingRequest> requests) {
+    @SuppressWarnings("unchecked")
+    Collection<TimeRange>[] answers = new Collection[requests.size()];
+    if (requests.size() < PARALLEL_THRESHOLD) {
+      for (int i = 0; i < answers.length; i++) {
+        answers[i] = query.query(index, requests.get(i));
+      }
+    } else {
+      // Each task writes only its own slot, so the answers keep the order of the requests. Running
+      // the stream from inside the pool makes its tasks use that pool instead of the common one.
+      pool.submit(() -> IntStream.range(0, answers.length)
+          .parallel()
+          .forEach(i -> answers[i] = query.query(index, requests.get(i))))
+          .join();
+    }
+    return Arrays.asList(answers);
+  }
+}
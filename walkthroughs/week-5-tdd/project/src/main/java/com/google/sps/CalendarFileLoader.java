@@ -0,0 +1,438 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Loads busy times from a calendar export straight into a {@code DayPartitionedIndex.Builder}. The
+ * file is memory-mapped in chunks and parsed byte by byte, so neither the file nor its lines are
+ * ever held as {@code String}s. Only a distinct attendee name becomes a {@code String}, once, when
+ * it is first seen. Two formats are understood:
+ *
+ * <ul>
+ *   <li>{@link Format#CSV}: one event per line, as {@code start,end,attendees}, where times are
+ *       {@code yyyy-MM-ddTHH:mm} (seconds and a trailing {@code Z} are allowed and ignored) and
+ *       attendees are separated by semicolons. Further columns are ignored, values cannot be
+ *       quoted, and a first line that doesn't start with a digit is taken as a header.
+ *   <li>{@link Format#ICS}: {@code VEVENT}s with {@code DTSTART}, {@code DTEND} and any number of
+ *       {@code ATTENDEE}s, whose names are the property values without {@code mailto:}. Folded
+ *       lines are unfolded. Times are read as UTC, whatever their {@code TZID}.
+ * </ul>
+ *
+ * <p>A loader is not thread-safe.
+ */
+public final class CalendarFileLoader {
+  /**
+   * The file formats that can be loaded.
+   */
+  public enum Format {
+    CSV,
+    ICS
+  }
+
+  // Each mapping covers at most this many bytes, well below the 2 GB limit of one mapping.
+  private static final long CHUNK_SIZE = 64L << 20;
+
+  private static final byte[] BEGIN_EVENT = bytes("BEGIN:VEVENT");
+  private static final byte[] END_EVENT = bytes("END:VEVENT");
+  private static final byte[] DTSTART = bytes("DTSTART");
+  private static final byte[] DTEND = bytes("DTEND");
+  private static final byte[] ATTENDEE = bytes("ATTENDEE");
+  private static final byte[] MAILTO = bytes("mailto:");
+
+  private final DayPartitionedIndex.Builder builder;
+  private final NameTable names = new NameTable();
+
+  // The current logical line, reused for every line.
+  private byte[] line = new byte[256];
+  private int length = 0;
+  private long lineNumber = 0;
+  private long events = 0;
+
+  // The event being read from an ICS file.
+  private boolean inEvent = false;
+  private long eventStart;
+  private long eventEnd;
+  private int[] eventAttendees = new int[16];
+  private int eventAttendeeCount;
+
+  /**
+   * Creates a loader that adds every event it reads to {@code builder}.
+   *
+   * @param builder Receives the busy times. Must be non-null.
+   */
+  public CalendarFileLoader(DayPartitionedIndex.Builder builder) {
+    if (builder == null) {
+      throw new IllegalArgumentException("builder cannot be null");
+    }
+
+    this.builder = builder;
+  }
+
+  /**
+   * Loads {@code file}, choosing the format by its extension: {@code .ics} for ICS and anything
+   * else for CSV. Returns the number of events read.
+   */
+  public long load(Path file) throws IOException {
+    String name = file.getFileName().toString().toLowerCase();
+    return load(file, name.endsWith(".ics") ? Format.ICS : Format.CSV);
+  }
+
+  /**
+   * Loads {@code file} in the given {@code format}. Returns the number of events read.
+   */
+  public long load(Path file, Format format) throws IOException {
+    long before = events;
+    lineNumber = 0;
+    length = 0;
+    inEvent = false;
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      // Set after a line break, until the next byte shows whether the line is folded.
+      boolean lineBreak = false;
+      for (long position = 0; position < size; position += CHUNK_SIZE) {
+        MappedByteBuffer chunk = channel.map(
+            FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, size - position));
+        while (chunk.hasRemaining()) {
+          byte b = chunk.get();
+          if (lineBreak) {
+            lineBreak = false;
+            if (format == Format.ICS && (b == ' ' || b == '\t')) {
+              // A folded line goes on after the leading whitespace.
+              continue;
+            }
+            endLine(format);
+          }
+          if (b == '\n') {
+            lineBreak = true;
+          } else if (b != '\r') {
+            append(b);
+          }
+        }
+      }
+      if (lineBreak || length > 0) {
+        endLine(format);
+      }
+    }
+    return events - before;
+  }
+
+  private void append(byte b) {
+    if (length == line.length) {
+      line = Arrays.copyOf(line, length * 2);
+    }
+    line[length++] = b;
+  }
+
+  private void endLine(Format format) throws IOException {
+    lineNumber++;
+    if (length > 0) {
+      if (format == Format.CSV) {
+        parseCsvLine();
+      } else {
+        parseIcsLine();
+      }
+    }
+    length = 0;
+  }
+
+  private void parseCsvLine() throws IOException {
+    if (lineNumber == 1 && !isDigit(line[0])) {
+      return;
+    }
+
+    int startEnd = indexOf((byte) ',', 0, length);
+    int endEnd = indexOf((byte) ',', startEnd + 1, length);
+    if (endEnd == length) {
+      throw malformed("expected start,end,attendees");
+    }
+    long start = parseIsoTime(0, startEnd);
+    long end = parseIsoTime(startEnd + 1, endEnd);
+    int attendeesEnd = indexOf((byte) ',', endEnd + 1, length);
+
+    for (int from = endEnd + 1; from < attendeesEnd; ) {
+      int to = indexOf((byte) ';', from, attendeesEnd);
+      int id = attendee(from, to);
+      if (id >= 0) {
+        builder.add(start, end, id);
+      }
+      from = to + 1;
+    }
+    events++;
+  }
+
+  private void parseIcsLine() throws IOException {
+    if (startsWith(0, BEGIN_EVENT) && length == BEGIN_EVENT.length) {
+      inEvent = true;
+      eventStart = -1;
+      eventEnd = -1;
+      eventAttendeeCount = 0;
+      return;
+    }
+    if (!inEvent) {
+      return;
+    }
+    if (startsWith(0, END_EVENT) && length == END_EVENT.length) {
+      inEvent = false;
+      if (eventStart < 0 || eventEnd < 0) {
+        throw malformed("VEVENT without DTSTART and DTEND");
+      }
+      for (int i = 0; i < eventAttendeeCount; i++) {
+        builder.add(eventStart, eventEnd, eventAttendees[i]);
+      }
+      events++;
+      return;
+    }
+
+    // The property name runs up to its parameters or value, and the value starts after the first
+    // colon that isn't inside a quoted parameter.
+    int nameEnd = 0;
+    while (nameEnd < length && line[nameEnd] != ';' && line[nameEnd] != ':') {
+      nameEnd++;
+    }
+    int valueStart = nameEnd;
+    boolean quoted = false;
+    while (valueStart < length && (quoted || line[valueStart] != ':')) {
+      if (line[valueStart] == '"') {
+        quoted = !quoted;
+      }
+      valueStart++;
+    }
+    valueStart++;
+    if (valueStart > length) {
+      return;
+    }
+
+    if (isName(nameEnd, DTSTART)) {
+      eventStart = parseIcsTime(valueStart, length);
+    } else if (isName(nameEnd, DTEND)) {
+      eventEnd = parseIcsTime(valueStart, length);
+    } else if (isName(nameEnd, ATTENDEE)) {
+      if (startsWithIgnoreCase(valueStart, MAILTO)) {
+        valueStart += MAILTO.length;
+      }
+      int id = attendee(valueStart, length);
+      if (id >= 0) {
+        if (eventAttendeeCount == eventAttendees.length) {
+          eventAttendees = Arrays.copyOf(eventAttendees, eventAttendeeCount * 2);
+        }
+        eventAttendees[eventAttendeeCount++] = id;
+      }
+    }
+  }
+
+  /**
+   * Returns the {@code AttendeeIds} ID of the name from {@code from} to {@code to} of the line,
+   * without surrounding spaces, or -1 if it is empty.
+   */
+  private int attendee(int from, int to) {
+    while (from < to && line[from] == ' ') {
+      from++;
+    }
+    while (to > from && line[to - 1] == ' ') {
+      to--;
+    }
+    return from < to ? names.id(line, from, to) : -1;
+  }
+
+  /**
+   * Parses {@code yyyy-MM-dd}, optionally followed by {@code THH:mm} or {@code " HH:mm"}, into
+   * minutes since the epoch.
+   */
+  private long parseIsoTime(int from, int to) throws IOException {
+    if (to - from < 10 || line[from + 4] != '-' || line[from + 7] != '-') {
+      throw malformed("expected yyyy-MM-ddTHH:mm");
+    }
+    long day = epochDay(digits(from, 4), digits(from + 5, 2), digits(from + 8, 2));
+    if (to - from == 10) {
+      return day * EpochMinuteRange.MINUTES_PER_DAY;
+    }
+    if (to - from < 16 || (line[from + 10] != 'T' && line[from + 10] != ' ')
+        || line[from + 13] != ':') {
+      throw malformed("expected yyyy-MM-ddTHH:mm");
+    }
+    return day * EpochMinuteRange.MINUTES_PER_DAY + digits(from + 11, 2) * 60
+        + digits(from + 14, 2);
+  }
+
+  /**
+   * Parses {@code yyyyMMdd}, optionally followed by {@code THHmmss}, into minutes since the epoch.
+   */
+  private long parseIcsTime(int from, int to) throws IOException {
+    if (to - from < 8) {
+      throw malformed("expected yyyyMMddTHHmmss");
+    }
+    long day = epochDay(digits(from, 4), digits(from + 4, 2), digits(from + 6, 2));
+    if (to - from == 8) {
+      return day * EpochMinuteRange.MINUTES_PER_DAY;
+    }
+    if (to - from < 13 || line[from + 8] != 'T') {
+      throw malformed("expected yyyyMMddTHHmmss");
+    }
+    return day * EpochMinuteRange.MINUTES_PER_DAY + digits(from + 9, 2) * 60
+        + digits(from + 11, 2);
+  }
+
+  private int digits(int from, int count) throws IOException {
+    int value = 0;
+    for (int i = from; i < from + count; i++) {
+      if (!isDigit(line[i])) {
+        throw malformed("expected a digit");
+      }
+      value = value * 10 + (line[i] - '0');
+    }
+    return value;
+  }
+
+  private IOException malformed(String expected) {
+    return new IOException("Malformed line " + lineNumber + ": " + expected);
+  }
+
+  private int indexOf(byte b, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (line[i] == b) {
+        return i;
+      }
+    }
+    return to;
+  }
+
+  private boolean startsWith(int from, byte[] prefix) {
+    if (length - from < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (line[from + i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean startsWithIgnoreCase(int from, byte[] prefix) {
+    if (length - from < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (Character.toLowerCase(line[from + i]) != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isName(int nameEnd, byte[] name) {
+    return nameEnd == name.length && startsWith(0, name);
+  }
+
+  private static boolean isDigit(byte b) {
+    return b >= '0' && b <= '9';
+  }
+
+  /**
+   * Returns the days since the epoch of a date in the proleptic Gregorian calendar.
+   */
+  static long epochDay(int year, int month, int day) {
+    // Count years from March so that the leap day falls at the end of the year.
+    long y = month <= 2 ? year - 1 : year;
+    long era = Math.floorDiv(y, 400);
+    long yearOfEra = y - era * 400;
+    long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - 719468;
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Maps the UTF-8 bytes of attendee names to their {@code AttendeeIds} IDs with open addressing,
+   * so that looking up a name that was seen before doesn't allocate.
+   */
+  private static final class NameTable {
+    private byte[][] keys = new byte[64][];
+    private int[] ids = new int[64];
+    private int size = 0;
+
+    int id(byte[] bytes, int from, int to) {
+      int mask = keys.length - 1;
+      int slot = hash(bytes, from, to) & mask;
+      while (keys[slot] != null) {
+        if (equals(keys[slot], bytes, from, to)) {
+          return ids[slot];
+        }
+        slot = (slot + 1) & mask;
+      }
+
+      byte[] key = Arrays.copyOfRange(bytes, from, to);
+      int id = AttendeeIds.intern(new String(key, StandardCharsets.UTF_8));
+      keys[slot] = key;
+      ids[slot] = id;
+      if (++size * 2 > keys.length) {
+        grow();
+      }
+      return id;
+    }
+
+    private void grow() {
+      byte[][] oldKeys = keys;
+      int[] oldIds = ids;
+      keys = new byte[oldKeys.length * 2][];
+      ids = new int[keys.length];
+      int mask = keys.length - 1;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] == null) {
+          continue;
+        }
+        int slot = hash(oldKeys[i], 0, oldKeys[i].length) & mask;
+        while (keys[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        ids[slot] = oldIds[i];
+      }
+    }
+
+    private static boolean equals(byte[] key, byte[] bytes, int from, int to) {
+      if (key.length != to - from) {
+        return false;
+      }
+      for (int i = 0; i < key.length; i++) {
+        if (key[i] != bytes[from + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+      int hash = 0;
+      for (int i = from; i < to; i++) {
+        hash = 31 * hash + bytes[i];
+      }
+      // Spread the high bits into the low ones, which pick the slot.
+      return hash ^ (hash >>> 16);
+    }
+  }
+}
@@ -0,0 +1,118 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+/**
+ * A run of whole days to search for meeting times, optionally restricted to working hours on each
+ * day. Within a horizon, times are counted in minutes since the start of its first day, so that
+ * two weeks still fit in the {@code int}s of a {@code TimeRangeSet}.
+ */
+public final class CalendarHorizon {
+  // Large enough for any realistic search while keeping horizon minutes well within an int.
+  private static final int MAX_DAYS = 3660;
+
+  private final long firstDay;
+  private final int days;
+  private final TimeRange workingHours;
+
+  // Every working minute of the horizon, built once so that queries apply it as one intersection.
+  private final TimeRangeSet workingMask;
+
+  /**
+   * Creates a horizon of {@code days} whole days.
+   *
+   * @param firstDay The first day of the horizon, counted in days since the epoch.
+   * @param days The number of days in the horizon. Must be positive.
+   */
+  public CalendarHorizon(long firstDay, int days) {
+    this(firstDay, days, TimeRange.WHOLE_DAY);
+  }
+
+  /**
+   * Creates a horizon of {@code days} days that only includes {@code workingHours} on each day.
+   *
+   * @param firstDay The first day of the horizon, counted in days since the epoch.
+   * @param days The number of days in the horizon. Must be positive.
+   * @param workingHours The part of each day that can be booked. Must be non-null.
+   */
+  public CalendarHorizon(long firstDay, int days, TimeRange workingHours) {
+    if (days <= 0 || days > MAX_DAYS) {
+      throw new IllegalArgumentException("days must be between 1 and " + MAX_DAYS);
+    }
+
+    if (workingHours == null) {
+      throw new IllegalArgumentException("workingHours cannot be null. Use WHOLE_DAY instead.");
+    }
+
+    this.firstDay = firstDay;
+    this.days = days;
+    this.workingHours = workingHours;
+
+    TimeRangeSet.Builder mask = new TimeRangeSet.Builder(days);
+    for (int day = 0; day < days; day++) {
+      int midnight = day * EpochMinuteRange.MINUTES_PER_DAY;
+      mask.add(midnight + workingHours.start(), midnight + workingHours.end());
+    }
+    this.workingMask = mask.build();
+  }
+
+  /**
+   * Returns the first day of the horizon, counted in days since the epoch.
+   */
+  public long getFirstDay() {
+    return firstDay;
+  }
+
+  /**
+   * Returns the number of days in the horizon.
+   */
+  public int getDays() {
+    return days;
+  }
+
+  /**
+   * Returns the part of each day that can be booked.
+   */
+  public TimeRange getWorkingHours() {
+    return workingHours;
+  }
+
+  /**
+   * Returns the first minute of the horizon, counted in minutes since the epoch.
+   */
+  public long startMinute() {
+    return firstDay * EpochMinuteRange.MINUTES_PER_DAY;
+  }
+
+  /**
+   * Returns the number of minutes in the horizon.
+   */
+  public int lengthInMinutes() {
+    return days * EpochMinuteRange.MINUTES_PER_DAY;
+  }
+
+  /**
+   * Returns the working minutes of the horizon, counted from {@link #startMinute()}.
+   */
+  TimeRangeSet workingMask() {
+    return workingMask;
+  }
+
+  /**
+   * Converts a minute relative to the start of the horizon back to minutes since the epoch.
+   */
+  long toEpochMinute(int horizonMinute) {
+    return startMinute() + horizonMinute;
+  }
+}
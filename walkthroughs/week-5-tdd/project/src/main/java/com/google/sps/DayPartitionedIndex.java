@@ -0,0 +1,137 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Busy times of attendees over many days, kept as one {@code AttendeeCalendarIndex} per day. A
+ * search over a horizon only reads the days it covers, so a two-week search costs about fourteen
+ * single-day lookups no matter how far the calendar extends. {@code RecurringEvent}s are kept by
+ * attendee as they are and only expanded over the days a search covers. Indexes are read-only once
+ * built.
+ */
+public final class DayPartitionedIndex {
+  private static final AttendeeCalendarIndex NO_EVENTS =
+      new AttendeeCalendarIndex.Builder().build();
+
+  private final Map<Long, AttendeeCalendarIndex> indexByDay;
+  private final Map<Integer, List<RecurringEvent>> recurringByAttendee;
+
+  private DayPartitionedIndex(Map<Long, AttendeeCalendarIndex> indexByDay,
+      Map<Integer, List<RecurringEvent>> recurringByAttendee) {
+    this.indexByDay = indexByDay;
+    this.recurringByAttendee = recurringByAttendee;
+  }
+
+  /**
+   * Returns the index of the day {@code epochDay}, counted in days since the epoch. Days without
+   * any events have an empty index.
+   */
+  public AttendeeCalendarIndex getDay(long epochDay) {
+    return indexByDay.getOrDefault(epochDay, NO_EVENTS);
+  }
+
+  /**
+   * Returns the number of days that have at least one busy time, not counting recurring events.
+   */
+  public int size() {
+    return indexByDay.size();
+  }
+
+  /**
+   * Returns the recurring events attended by the attendee with the given {@code AttendeeIds} ID.
+   */
+  List<RecurringEvent> getRecurringEvents(int attendee) {
+    return recurringByAttendee.getOrDefault(attendee, Collections.emptyList());
+  }
+
+  /**
+   * Collects busy times over any number of days.
+   */
+  public static final class Builder {
+    private final Map<Long, AttendeeCalendarIndex.Builder> builders = new HashMap<>();
+    private final Map<Integer, List<RecurringEvent>> recurringByAttendee = new HashMap<>();
+
+    /**
+     * Adds {@code event} on the day {@code epochDay}, counted in days since the epoch.
+     */
+    public Builder add(long epochDay, Event event) {
+      day(epochDay).add(event);
+      return this;
+    }
+
+    /**
+     * Marks every one of {@code attendees} as busy during {@code busy}. Ranges that cross midnight
+     * are split between the days they cover.
+     */
+    public Builder add(EpochMinuteRange busy, Collection<String> attendees) {
+      for (String attendee : attendees) {
+        add(busy.start(), busy.end(), AttendeeIds.intern(attendee));
+      }
+      return this;
+    }
+
+    /**
+     * Marks the attendee with the given {@code AttendeeIds} ID as busy from {@code start}
+     * (inclusive) to {@code end} (exclusive), in minutes since the epoch. Ranges that cross
+     * midnight are split between the days they cover.
+     */
+    public Builder add(long start, long end, int attendee) {
+      if (end <= start) {
+        return this;
+      }
+      long day = EpochMinuteRange.dayOf(start);
+      long lastDay = EpochMinuteRange.dayOf(end - 1);
+      for (; day <= lastDay; day++) {
+        long midnight = day * EpochMinuteRange.MINUTES_PER_DAY;
+        long nextMidnight = midnight + EpochMinuteRange.MINUTES_PER_DAY;
+        day(day).add(attendee, (int) (Math.max(start, midnight) - midnight),
+            (int) (Math.min(end, nextMidnight) - midnight));
+      }
+      return this;
+    }
+
+    /**
+     * Adds every occurrence of {@code event} without expanding it.
+     */
+    public Builder add(RecurringEvent event) {
+      for (int attendee : event.getEvent().getAttendeeIds()) {
+        recurringByAttendee.computeIfAbsent(attendee, key -> new ArrayList<>()).add(event);
+      }
+      return this;
+    }
+
+    public DayPartitionedIndex build() {
+      Map<Long, AttendeeCalendarIndex> indexByDay = new HashMap<>();
+      for (Map.Entry<Long, AttendeeCalendarIndex.Builder> entry : builders.entrySet()) {
+        indexByDay.put(entry.getKey(), entry.getValue().build());
+      }
+      Map<Integer, List<RecurringEvent>> recurring = new HashMap<>();
+      for (Map.Entry<Integer, List<RecurringEvent>> entry : recurringByAttendee.entrySet()) {
+        recurring.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+      }
+      return new DayPartitionedIndex(indexByDay, recurring);
+    }
+
+    private AttendeeCalendarIndex.Builder day(long epochDay) {
+      return builders.computeIfAbsent(epochDay, key -> new AttendeeCalendarIndex.Builder());
+    }
+  }
+}
@@ -0,0 +1,125 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+import java.util.Comparator;
+
+/**
+ * A span of time counted in minutes since the Unix epoch (1970-01-01T00:00 UTC). Unlike
+ * {@code TimeRange}, which is limited to one day, an {@code EpochMinuteRange} can cover any number
+ * of days. Ranges are read-only.
+ */
+public final class EpochMinuteRange {
+  public static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  /**
+   * A comparator for sorting ranges by their start time in ascending order.
+   */
+  public static final Comparator<EpochMinuteRange> ORDER_BY_START =
+      new Comparator<EpochMinuteRange>() {
+        @Override
+        public int compare(EpochMinuteRange a, EpochMinuteRange b) {
+          return Long.compare(a.start, b.start);
+        }
+      };
+
+  private final long start;
+  private final long end;
+
+  private EpochMinuteRange(long start, long end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Creates a range from {@code start} (inclusive) to {@code end} (exclusive).
+   */
+  public static EpochMinuteRange fromStartEnd(long start, long end) {
+    if (end < start) {
+      throw new IllegalArgumentException("end cannot come before start");
+    }
+
+    return new EpochMinuteRange(start, end);
+  }
+
+  /**
+   * Creates a range starting at {@code start} that lasts {@code duration} minutes.
+   */
+  public static EpochMinuteRange fromStartDuration(long start, long duration) {
+    return fromStartEnd(start, start + duration);
+  }
+
+  /**
+   * Creates the range that {@code range} covers on the day {@code epochDay}, counted in days since
+   * the epoch.
+   */
+  public static EpochMinuteRange onDay(long epochDay, TimeRange range) {
+    long midnight = epochDay * MINUTES_PER_DAY;
+    return new EpochMinuteRange(midnight + range.start(), midnight + range.end());
+  }
+
+  /**
+   * Returns the start of the range in minutes since the epoch.
+   */
+  public long start() {
+    return start;
+  }
+
+  /**
+   * Returns the end of the range. This ending value is the closing exclusive bound.
+   */
+  public long end() {
+    return end;
+  }
+
+  /**
+   * Returns the number of minutes between the start and end.
+   */
+  public long duration() {
+    return end - start;
+  }
+
+  /**
+   * Returns the day, counted since the epoch, that {@code epochMinute} falls on.
+   */
+  public static long dayOf(long epochMinute) {
+    return Math.floorDiv(epochMinute, MINUTES_PER_DAY);
+  }
+
+  /**
+   * Checks if two ranges overlap. Ranges that only touch do not overlap.
+   */
+  public boolean overlaps(EpochMinuteRange other) {
+    return start < other.end && other.start < end;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof EpochMinuteRange && equals(this, (EpochMinuteRange) other);
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(start) ^ Long.hashCode(end);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Range: [%d, %d)", start, end);
+  }
+
+  private static boolean equals(EpochMinuteRange a, EpochMinuteRange b) {
+    return a.start == b.start && a.end == b.end;
+  }
+}
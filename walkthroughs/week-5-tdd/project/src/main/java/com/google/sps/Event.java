@@ -14,9 +14,11 @@
 
 package com.google.sps;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
@@ -26,7 +28,13 @@ import java.util.Set;
 public final class Event {
   private final String title;
   private final TimeRange when;
-  private final Set<String> attendees = new HashSet<>();
+
+  // The distinct attendee names, sorted, using the canonical instances from {@code AttendeeIds}.
+  // An array instead of a hash set keeps events small, and serializes to the same JSON.
+  private final String[] attendees;
+
+  // The sorted IDs of the attendees, for set operations on the query path.
+  private final transient int[] attendeeIds;
 
   /**
    * Creates a new event.
@@ -50,7 +58,12 @@ public final class Event {
 
     this.title = title;
     this.when = when;
-    this.attendees.addAll(attendees);
+    this.attendeeIds = AttendeeIds.internAll(attendees);
+    this.attendees = new String[attendeeIds.length];
+    for (int i = 0; i < attendeeIds.length; i++) {
+      this.attendees[i] = AttendeeIds.name(attendeeIds[i]);
+    }
+    Arrays.sort(this.attendees);
   }
 
   /**
@@ -71,9 +84,16 @@ public final class Event {
    * Returns a read-only set of required attendees for this event.
    */
   public Set<String> getAttendees() {
-    // Return the attendees as an unmodifiable set so that the caller can't change our
-    // internal data.
-    return Collections.unmodifiableSet(attendees);
+    // Return a read-only view so that the caller can't change our internal data.
+    return new SortedNameSet(attendees);
+  }
+
+  /**
+   * Returns the sorted IDs of the attendees of this event, as assigned by {@code AttendeeIds}. The
+   * returned array must not be modified.
+   */
+  public int[] getAttendeeIds() {
+    return attendeeIds;
   }
 
   @Override
@@ -89,8 +109,50 @@ public final class Event {
   }
 
   private static boolean equals(Event a, Event b) {
-    // {@code attendees} must be a set for equals to work as expected. According to the {@code Set}
-    // interface documentation, equals will check for set-equality across all set implementations.
-    return a.title.equals(b.title) && a.when.equals(b.when) && a.attendees.equals(b.attendees);
+    // {@code attendees} is sorted and free of duplicates, so comparing the arrays checks for
+    // set-equality.
+    return a.title.equals(b.title) && a.when.equals(b.when)
+        && Arrays.equals(a.attendees, b.attendees);
+  }
+
+  /**
+   * Read-only set view of a sorted array of distinct names.
+   */
+  private static final class SortedNameSet extends AbstractSet<String> {
+    private final String[] names;
+
+    private SortedNameSet(String[] names) {
+      this.names = names;
+    }
+
+    @Override
+    public boolean contains(Object other) {
+      return other instanceof String && Arrays.binarySearch(names, other) >= 0;
+    }
+
+    @Override
+    public int size() {
+      return names.length;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+      return new Iterator<String>() {
+        private int next = 0;
+
+        @Override
+        public boolean hasNext() {
+          return next < names.length;
+        }
+
+        @Override
+        public String next() {
+          if (next >= names.length) {
+            throw new NoSuchElementException();
+          }
+          return names[next++];
+        }
+      };
+    }
   }
 }
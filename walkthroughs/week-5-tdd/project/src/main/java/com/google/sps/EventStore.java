@@ -0,0 +1,185 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thread-safe store of the known events. Readers take the current {@code Snapshot}, which never
+ * changes and comes with its {@code AttendeeCalendarIndex} already built, so reads never block.
+ * Writers are serialized with each other and publish a new snapshot for every change, rebuilding
+ * only the busy times of the attendees of the changed event.
+ */
+public final class EventStore {
+  private static final class DefaultHolder {
+    private static final EventStore INSTANCE = new EventStore(Arrays.asList(Events.events));
+  }
+
+  /**
+   * A read-only view of the store at one point in time.
+   */
+  public static final class Snapshot {
+    private final long version;
+    private final List<Event> events;
+    private final AttendeeCalendarIndex index;
+
+    // The version in which the busy times of each attendee ID last changed. IDs past the end of the
+    // array have not changed since the store was created.
+    private final long[] attendeeVersions;
+
+    private Snapshot(long version, List<Event> events, AttendeeCalendarIndex index,
+        long[] attendeeVersions) {
+      this.version = version;
+      this.events = events;
+      this.index = index;
+      this.attendeeVersions = attendeeVersions;
+    }
+
+    /**
+     * Returns a number that grows every time the store changes.
+     */
+    public long getVersion() {
+      return version;
+    }
+
+    /**
+     * Returns a read-only list of the events in this snapshot, in the order they were added.
+     */
+    public List<Event> getEvents() {
+      return events;
+    }
+
+    /**
+     * Returns the busy times of every attendee in this snapshot.
+     */
+    public AttendeeCalendarIndex getIndex() {
+      return index;
+    }
+
+    /**
+     * Returns the version in which the busy times of the attendee with the given
+     * {@code AttendeeIds} ID last changed, or 0 if they haven't changed since the store was
+     * created. Results computed for a set of attendees stay valid for as long as none of their
+     * versions move.
+     */
+    public long getAttendeeVersion(int id) {
+      return id >= 0 && id < attendeeVersions.length ? attendeeVersions[id] : 0;
+    }
+  }
+
+  // Only read and written while holding the lock on {@code this}.
+  private final Map<Integer, List<Event>> eventsByAttendee = new HashMap<>();
+
+  private volatile Snapshot current;
+
+  /**
+   * Creates a store holding {@code events}.
+   *
+   * @param events The initial events. Must be non-null.
+   */
+  public EventStore(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty collection instead.");
+    }
+
+    for (Event event : events) {
+      for (int attendee : event.getAttendeeIds()) {
+        eventsByAttendee.computeIfAbsent(attendee, key -> new ArrayList<>()).add(event);
+      }
+    }
+    List<Event> initial = Collections.unmodifiableList(new ArrayList<>(events));
+    current = new Snapshot(0, initial, AttendeeCalendarIndex.of(initial), new long[0]);
+  }
+
+  /**
+   * Returns the store shared by the servlets, which starts out holding {@code Events.events}.
+   */
+  public static EventStore getDefault() {
+    return DefaultHolder.INSTANCE;
+  }
+
+  /**
+   * Returns the current snapshot. This never blocks, even while a write is in progress.
+   */
+  public Snapshot snapshot() {
+    return current;
+  }
+
+  /**
+   * Adds {@code event} and returns the snapshot that includes it.
+   *
+   * @param event The event to add. Must be non-null.
+   */
+  public synchronized Snapshot add(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    List<Event> events = new ArrayList<>(current.events);
+    events.add(event);
+    for (int attendee : event.getAttendeeIds()) {
+      eventsByAttendee.computeIfAbsent(attendee, key -> new ArrayList<>()).add(event);
+    }
+    return publish(events, event.getAttendeeIds());
+  }
+
+  /**
+   * Removes one event equal to {@code event}, if there is one, and returns the resulting snapshot.
+   */
+  public synchronized Snapshot remove(Event event) {
+    List<Event> events = new ArrayList<>(current.events);
+    if (!events.remove(event)) {
+      return current;
+    }
+    for (int attendee : event.getAttendeeIds()) {
+      List<Event> attendeeEvents = eventsByAttendee.get(attendee);
+      attendeeEvents.remove(event);
+      if (attendeeEvents.isEmpty()) {
+        eventsByAttendee.remove(attendee);
+      }
+    }
+    return publish(events, event.getAttendeeIds());
+  }
+
+  private Snapshot publish(List<Event> events, int[] changedAttendees) {
+    long version = current.version + 1;
+    long[] attendeeVersions = current.attendeeVersions;
+    Map<Integer, TimeRangeSet> changed = new HashMap<>();
+    for (int attendee : changedAttendees) {
+      if (attendee >= attendeeVersions.length) {
+        attendeeVersions = Arrays.copyOf(attendeeVersions, attendee + 1);
+      } else if (attendeeVersions == current.attendeeVersions) {
+        attendeeVersions = attendeeVersions.clone();
+      }
+      attendeeVersions[attendee] = version;
+
+      TimeRangeSet.Builder busy = new TimeRangeSet.Builder();
+      for (Event event : eventsByAttendee.getOrDefault(attendee, Collections.emptyList())) {
+        busy.add(event.getWhen());
+      }
+      changed.put(attendee, busy.build());
+    }
+
+    Snapshot next = new Snapshot(version, Collections.unmodifiableList(events),
+        current.index.withBusySets(changed), attendeeVersions);
+    current = next;
+    return next;
+  }
+}
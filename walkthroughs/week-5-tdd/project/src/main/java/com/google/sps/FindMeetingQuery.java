@@ -14,10 +14,321 @@
 
 package com.google.sps;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
 
+/**
+ * Finds the times of day when every required attendee of a {@code MeetingRequest} is free.
+ */
 public final class FindMeetingQuery {
+  private final AvailabilityStrategy strategy;
+
+  /**
+   * Creates a query that picks the cheapest {@code AvailabilityStrategy} for each request.
+   */
+  public FindMeetingQuery() {
+    this(AvailabilityStrategy.AUTO);
+  }
+
+  /**
+   * Creates a query that always uses {@code strategy} when reading from an index.
+   *
+   * @param strategy How busy times are combined. Must be non-null.
+   */
+  public FindMeetingQuery(AvailabilityStrategy strategy) {
+    if (strategy == null) {
+      throw new IllegalArgumentException("strategy cannot be null");
+    }
+
+    this.strategy = strategy;
+  }
+
+  /**
+   * Returns the free gaps of the day, ordered by start, that are at least as long as the requested
+   * duration. Only the busy times of the required attendees are considered.
+   */
   public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
-    throw new UnsupportedOperationException("TODO: Implement this method.");
+    long duration = request.getDuration();
+    if (duration > TimeRange.WHOLE_DAY.duration()) {
+      return Collections.emptyList();
+    }
+
+    int[] attendees = request.getAttendeeIds();
+    TimeRangeSet.Builder busy = new TimeRangeSet.Builder(events.size());
+    for (Event event : events) {
+      if (AttendeeIds.intersects(event.getAttendeeIds(), attendees)) {
+        busy.add(event.getWhen());
+      }
+    }
+    return findGaps(busy.build(), duration).toList();
+  }
+
+  /**
+   * Same as {@link #query(Collection, MeetingRequest)}, but reads busy times from a prebuilt
+   * {@code index}. Only the required attendees of {@code request} are looked up, so the cost
+   * depends on the size of the meeting rather than on the number of indexed events.
+   */
+  public Collection<TimeRange> query(AttendeeCalendarIndex index, MeetingRequest request) {
+    return freeTimes(index, request).toList();
+  }
+
+  /**
+   * Returns the slots that every required attendee can make and that as many optional attendees as
+   * possible can make too. Any meeting of the requested duration that starts within a returned slot
+   * reaches that maximum, so slots can overlap when the start times between them are worse.
+   *
+   * <p>If there are no required attendees and none of the optional attendees can make any slot,
+   * there is nobody to meet and no slots are returned.
+   */
+  public Collection<TimeRange> queryMaximizingOptional(
+      AttendeeCalendarIndex index, MeetingRequest request) {
+    long duration = request.getDuration();
+    if (duration > TimeRange.WHOLE_DAY.duration()) {
+      return Collections.emptyList();
+    }
+
+    int length = (int) Math.max(duration, 1);
+    TimeRangeSet free = strategy.findFree(index, request.getAttendeeIds(), length);
+    int[] optionalAttendees = request.getOptionalAttendeeIds();
+    OptionalConflicts conflicts = OptionalConflicts.of(index, optionalAttendees, length);
+
+    // A free range [a, b) allows meetings starting anywhere from a to b - length.
+    int best = Integer.MAX_VALUE;
+    for (int i = 0; i < free.size(); i++) {
+      best = Math.min(best, conflicts.minCount(free.start(i), free.end(i) - length));
+    }
+    // Optional attendees without an ID have no events, so they can make any slot and are never
+    // counted as conflicts.
+    int optionalCount = request.getOptionalAttendees().size();
+    if (request.getAttendees().isEmpty() && optionalCount > 0 && best == optionalCount) {
+      return Collections.emptyList();
+    }
+
+    List<TimeRange> slots = new ArrayList<>();
+    for (int i = 0; i < free.size(); i++) {
+      conflicts.addSlotsWithCount(free.start(i), free.end(i) - length, best, length, slots);
+    }
+    return slots;
+  }
+
+  /**
+   * Same as {@link #queryMaximizingOptional(AttendeeCalendarIndex, MeetingRequest)}, but builds
+   * the index from {@code events} first.
+   */
+  public Collection<TimeRange> queryMaximizingOptional(
+      Collection<Event> events, MeetingRequest request) {
+    return queryMaximizingOptional(AttendeeCalendarIndex.of(events), request);
+  }
+
+  /**
+   * Returns the {@code k} best meeting times for {@code request}, best first, as ranked by
+   * {@code preferences}. Every returned range is exactly as long as the meeting and every required
+   * attendee is free for all of it.
+   *
+   * <p>Start times are visited in order and only the best {@code k} seen so far are kept, in a
+   * heap. Since no penalty is lower than what its start time alone adds, the scan stops as soon as
+   * that is already worse than all {@code k} kept times.
+   */
+  public List<TimeRange> queryTopK(AttendeeCalendarIndex index, MeetingRequest request,
+      SlotPreferences preferences, int k) {
+    if (preferences == null) {
+      throw new IllegalArgumentException("preferences cannot be null");
+    }
+    if (k <= 0) {
+      throw new IllegalArgumentException("k must be positive");
+    }
+
+    long duration = request.getDuration();
+    if (duration > TimeRange.WHOLE_DAY.duration()) {
+      return Collections.emptyList();
+    }
+
+    int length = (int) Math.max(duration, 1);
+    TimeRangeSet free = strategy.findFree(index, request.getAttendeeIds(), length);
+    int[] optionalAttendees = request.getOptionalAttendeeIds();
+    OptionalConflicts conflicts = preferences.countsConflicts() && optionalAttendees.length > 0
+        ? OptionalConflicts.of(index, optionalAttendees, length)
+        : null;
+
+    // Worst kept time first, so it is the one to drop when a better one comes along.
+    PriorityQueue<RankedStart> best = new PriorityQueue<>(k + 1, Collections.reverseOrder());
+    int step = preferences.getStep();
+    scan:
+    for (int i = 0; i < free.size(); i++) {
+      int last = free.end(i) - length;
+      // Visit the start of the range, then every multiple of the step after it.
+      for (int start = free.start(i); start <= last; start = (start / step + 1) * step) {
+        if (best.size() == k && preferences.lowerBound(start) >= best.peek().penalty) {
+          break scan;
+        }
+        int count = conflicts != null ? conflicts.countAt(start) : 0;
+        best.add(new RankedStart(preferences.penalty(start, length, count), start));
+        if (best.size() > k) {
+          best.poll();
+        }
+      }
+    }
+
+    RankedStart[] ranked = best.toArray(new RankedStart[0]);
+    Arrays.sort(ranked);
+    List<TimeRange> slots = new ArrayList<>(ranked.length);
+    for (RankedStart start : ranked) {
+      slots.add(TimeRange.fromStartDuration(start.start, length));
+    }
+    return slots;
+  }
+
+  /**
+   * Updates {@code previous}, the result of {@link #query} for {@code request}, after
+   * {@code added} has been added to the calendar. Only the slots that the event overlaps are
+   * touched. They are found by binary search and cut around the event, so nothing has to be
+   * recomputed from busy times.
+   */
+  public List<TimeRange> queryAfterAdd(
+      Collection<TimeRange> previous, MeetingRequest request, Event added) {
+    List<TimeRange> slots = new ArrayList<>(previous);
+    if (!AttendeeIds.intersects(added.getAttendeeIds(), request.getAttendeeIds())) {
+      return slots;
+    }
+
+    TimeRange when = added.getWhen();
+    int first = firstSlotEndingAfter(slots, when.start());
+    int last = first;
+    while (last < slots.size() && slots.get(last).start() < when.end()) {
+      last++;
+    }
+    if (first == last) {
+      return slots;
+    }
+
+    // The event is one range, so all that can be left of the overlapped slots is the part of the
+    // first one before the event and the part of the last one after it.
+    long length = Math.max(request.getDuration(), 1);
+    int headStart = slots.get(first).start();
+    int tailEnd = slots.get(last - 1).end();
+    List<TimeRange> pieces = new ArrayList<>(2);
+    if (when.start() - headStart >= length) {
+      pieces.add(TimeRange.fromStartEnd(headStart, when.start(), false));
+    }
+    if (tailEnd - when.end() >= length) {
+      pieces.add(TimeRange.fromStartEnd(when.end(), tailEnd, false));
+    }
+    slots.subList(first, last).clear();
+    slots.addAll(first, pieces);
+    return slots;
+  }
+
+  /**
+   * Updates {@code previous}, the result of {@link #query} for {@code request}, after
+   * {@code removed} has been taken off the calendar. {@code index} must already reflect the
+   * removal. Other events may still cover some of the freed time, so the window between the
+   * previous slots on either side of the event is recomputed from {@code index}, looking only at
+   * the busy times inside that window.
+   */
+  public List<TimeRange> queryAfterRemove(Collection<TimeRange> previous,
+      AttendeeCalendarIndex index, MeetingRequest request, Event removed) {
+    List<TimeRange> slots = new ArrayList<>(previous);
+    long duration = request.getDuration();
+    int[] attendees = request.getAttendeeIds();
+    if (duration > TimeRange.WHOLE_DAY.duration()
+        || !AttendeeIds.intersects(removed.getAttendeeIds(), attendees)) {
+      return slots;
+    }
+
+    // The freed time can join the slots right before and after the event, so they are part of the
+    // window and get replaced too.
+    TimeRange when = removed.getWhen();
+    int after = firstSlotEndingAfter(slots, when.start());
+    int first = after - 1;
+    while (after < slots.size() && slots.get(after).start() < when.end()) {
+      after++;
+    }
+    int from = first >= 0 ? slots.get(first).start() : TimeRange.WHOLE_DAY.start();
+    int to = after < slots.size() ? slots.get(after).end() : TimeRange.WHOLE_DAY.end();
+
+    List<TimeRangeSet> busy = new ArrayList<>(attendees.length);
+    for (int attendee : attendees) {
+      busy.add(index.getBusySet(attendee).clip(from, to));
+    }
+    TimeRangeSet free = TimeRangeSet.of(from, to)
+        .subtract(TimeRangeSet.unionAll(busy))
+        .minDuration(Math.max(duration, 1));
+
+    first = Math.max(first, 0);
+    slots.subList(first, Math.min(after + 1, slots.size())).clear();
+    slots.addAll(first, free.toList());
+    return slots;
+  }
+
+  /**
+   * Same as {@link #query(AttendeeCalendarIndex, MeetingRequest)}, but returns the free times as a
+   * {@code TimeRangeSet} for further set operations.
+   */
+  TimeRangeSet freeTimes(AttendeeCalendarIndex index, MeetingRequest request) {
+    long duration = request.getDuration();
+    if (duration > TimeRange.WHOLE_DAY.duration()) {
+      return TimeRangeSet.EMPTY;
+    }
+    return strategy.findFree(index, request.getAttendeeIds(), duration);
+  }
+
+  /**
+   * Returns the union of the busy times of {@code attendees}.
+   */
+  static TimeRangeSet busyTimes(AttendeeCalendarIndex index, int[] attendees) {
+    List<TimeRangeSet> busy = new ArrayList<>(attendees.length);
+    for (int attendee : attendees) {
+      busy.add(index.getBusySet(attendee));
+    }
+    return TimeRangeSet.unionAll(busy);
+  }
+
+  /**
+   * Returns the gaps of the day outside {@code busy} that are at least {@code duration} minutes
+   * long.
+   */
+  static TimeRangeSet findGaps(TimeRangeSet busy, long duration) {
+    return TimeRangeSet.WHOLE_DAY.subtract(busy).minDuration(Math.max(duration, 1));
+  }
+
+  /**
+   * A meeting start time and its penalty. Lower penalties, then earlier starts, order first.
+   */
+  private static final class RankedStart implements Comparable<RankedStart> {
+    private final long penalty;
+    private final int start;
+
+    RankedStart(long penalty, int start) {
+      this.penalty = penalty;
+      this.start = start;
+    }
+
+    @Override
+    public int compareTo(RankedStart other) {
+      int byPenalty = Long.compare(penalty, other.penalty);
+      return byPenalty != 0 ? byPenalty : Integer.compare(start, other.start);
+    }
+  }
+
+  /**
+   * Returns the index of the first of the sorted, disjoint {@code slots} that ends after
+   * {@code point}, or the number of slots if there is none.
+   */
+  private static int firstSlotEndingAfter(List<TimeRange> slots, int point) {
+    int low = 0;
+    int high = slots.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (slots.get(mid).end() <= point) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
   }
 }
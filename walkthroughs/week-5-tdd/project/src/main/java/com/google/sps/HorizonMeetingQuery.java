@@ -0,0 +1,82 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the times within a multi-day {@code CalendarHorizon} when every required attendee of a
+ * {@code MeetingRequest} is free. Unlike {@code FindMeetingQuery}, meetings can run past midnight
+ * when the horizon's working hours allow it.
+ */
+public final class HorizonMeetingQuery {
+  /**
+   * Returns the free ranges of the horizon's working hours, ordered by start, that are at least as
+   * long as the requested duration. Only the busy times of the required attendees are considered.
+   */
+  public List<EpochMinuteRange> query(
+      DayPartitionedIndex index, MeetingRequest request, CalendarHorizon horizon) {
+    long duration = request.getDuration();
+    if (duration > horizon.lengthInMinutes()) {
+      return Collections.emptyList();
+    }
+
+    // Lay every day's busy times end to end, counted from the start of the horizon, so the whole
+    // horizon is handled by one subtraction of the working-hours mask.
+    int[] attendees = request.getAttendeeIds();
+    TimeRangeSet.Builder busy = new TimeRangeSet.Builder();
+    for (int day = 0; day < horizon.getDays(); day++) {
+      AttendeeCalendarIndex dayIndex = index.getDay(horizon.getFirstDay() + day);
+      int midnight = day * EpochMinuteRange.MINUTES_PER_DAY;
+      for (int attendee : attendees) {
+        TimeRangeSet dayBusy = dayIndex.getBusySet(attendee);
+        for (int i = 0; i < dayBusy.size(); i++) {
+          busy.add(midnight + dayBusy.start(i), midnight + dayBusy.end(i));
+        }
+      }
+    }
+
+    // Recurring events are only expanded over the horizon. An event shared by several attendees is
+    // expanded once.
+    long from = horizon.startMinute();
+    long to = from + horizon.lengthInMinutes();
+    Set<RecurringEvent> expanded = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int attendee : attendees) {
+      for (RecurringEvent event : index.getRecurringEvents(attendee)) {
+        if (!expanded.add(event)) {
+          continue;
+        }
+        Iterator<EpochMinuteRange> occurrences = event.occurrences(from, to);
+        while (occurrences.hasNext()) {
+          EpochMinuteRange occurrence = occurrences.next();
+          busy.add((int) (occurrence.start() - from), (int) (occurrence.end() - from));
+        }
+      }
+    }
+
+    TimeRangeSet free =
+        horizon.workingMask().subtract(busy.build()).minDuration(Math.max(duration, 1));
+    List<EpochMinuteRange> options = new ArrayList<>(free.size());
+    for (int i = 0; i < free.size(); i++) {
+      options.add(EpochMinuteRange.fromStartEnd(
+          horizon.toEpochMinute(free.start(i)), horizon.toEpochMinute(free.end(i))));
+    }
+    return options;
+  }
+}
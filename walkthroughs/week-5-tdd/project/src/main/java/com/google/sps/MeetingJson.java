@@ -0,0 +1,146 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Hand-written streaming JSON encoding of {@code MeetingRequest}s and {@code TimeRange}s. It reads
+ * and writes the same JSON as {@code Gson} does for these classes (and as script.js expects), but
+ * without reflection or intermediate objects.
+ */
+public final class MeetingJson {
+  private MeetingJson() {
+    // Disallow instances.
+  }
+
+  /**
+   * Reads one meeting request object. Unknown fields are skipped and missing fields are treated as
+   * empty.
+   */
+  public static MeetingRequest readMeetingRequest(JsonReader reader) throws IOException {
+    long duration = 0;
+    List<String> attendees = new ArrayList<>();
+    List<String> optionalAttendees = new ArrayList<>();
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        continue;
+      }
+      switch (name) {
+        case "duration":
+          // script.js sends the duration as a string, which nextLong() also accepts.
+          duration = reader.nextLong();
+          break;
+        case "attendees":
+          readNames(reader, attendees);
+          break;
+        case "optional_attendees":
+          readNames(reader, optionalAttendees);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    MeetingRequest request = new MeetingRequest(attendees, duration);
+    for (String attendee : optionalAttendees) {
+      request.addOptionalAttendee(attendee);
+    }
+    return request;
+  }
+
+  /**
+   * Reads an array of meeting request objects.
+   */
+  public static List<MeetingRequest> readMeetingRequests(JsonReader reader) throws IOException {
+    List<MeetingRequest> requests = new ArrayList<>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      requests.add(readMeetingRequest(reader));
+    }
+    reader.endArray();
+    return requests;
+  }
+
+  /**
+   * Reads one time range object with {@code start} and {@code duration} fields.
+   */
+  public static TimeRange readTimeRange(JsonReader reader) throws IOException {
+    int start = 0;
+    int duration = 0;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "start":
+          start = reader.nextInt();
+          break;
+        case "duration":
+          duration = reader.nextInt();
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return TimeRange.fromStartDuration(start, duration);
+  }
+
+  /**
+   * Writes one time range as an object with {@code start} and {@code duration} fields.
+   */
+  public static void writeTimeRange(JsonWriter writer, TimeRange range) throws IOException {
+    writer.beginObject();
+    writer.name("start").value(range.start());
+    writer.name("duration").value(range.duration());
+    writer.endObject();
+  }
+
+  /**
+   * Writes {@code ranges} as an array of time range objects.
+   */
+  public static void writeTimeRanges(JsonWriter writer, Collection<TimeRange> ranges)
+      throws IOException {
+    writer.beginArray();
+    for (TimeRange range : ranges) {
+      writeTimeRange(writer, range);
+    }
+    writer.endArray();
+  }
+
+  private static void readNames(JsonReader reader, List<String> names) throws IOException {
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        continue;
+      }
+      // Share the interned instance of known names so the request doesn't hold its own copy. Names
+      // are never interned here, since a request body could otherwise grow the dictionary.
+      names.add(AttendeeIds.canonicalIfKnown(reader.nextString()));
+    }
+    reader.endArray();
+  }
+}
@@ -0,0 +1,222 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the answers of a {@code FindMeetingQuery} for repeated requests, such as the ones sent
+ * while someone edits a meeting. Requests are matched on their attendee IDs and duration, so the
+ * order and spelling of names don't matter. Holds at most a fixed number of answers, dropping the
+ * least recently used first, and none older than a fixed time to live.
+ *
+ * <p>An answer only depends on the busy times of the people in its request, so it is not thrown
+ * away when the store changes. Instead it is checked against the {@code EventStore.Snapshot} on
+ * every lookup and only dropped once one of its own attendees has changed.
+ */
+public final class MeetingQueryCache {
+  private final FindMeetingQuery query;
+  private final long ttlNanos;
+  private final LongSupplier clock;
+  private final LinkedHashMap<Key, CachedAnswer> entries;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Creates a cache in front of {@code query}.
+   *
+   * @param query Computes the answers that are not cached. Must be non-null.
+   * @param maxEntries The most answers to keep. Must be positive.
+   * @param ttl How long an answer is kept at most.
+   * @param unit The unit of {@code ttl}.
+   */
+  public MeetingQueryCache(FindMeetingQuery query, int maxEntries, long ttl, TimeUnit unit) {
+    this(query, maxEntries, unit.toNanos(ttl), System::nanoTime);
+  }
+
+  MeetingQueryCache(FindMeetingQuery query, int maxEntries, long ttlNanos, LongSupplier clock) {
+    if (query == null) {
+      throw new IllegalArgumentException("query cannot be null");
+    }
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+
+    this.query = query;
+    this.ttlNanos = ttlNanos;
+    this.clock = clock;
+    // An access-ordered map keeps the least recently used entry first.
+    this.entries = new LinkedHashMap<Key, CachedAnswer>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, CachedAnswer> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Returns the same times as {@link FindMeetingQuery#query(AttendeeCalendarIndex,
+   * MeetingRequest)} against the index of {@code snapshot}. The returned collection is read-only.
+   */
+  public Collection<TimeRange> query(EventStore.Snapshot snapshot, MeetingRequest request) {
+    // Optional attendees don't change the answer, so they are left out of the key.
+    Key key = new Key(false, request.getAttendeeIds(), new int[0], 0, request.getDuration());
+    return lookup(snapshot, key, request);
+  }
+
+  /**
+   * Returns the same times as {@link FindMeetingQuery#queryMaximizingOptional(
+   * AttendeeCalendarIndex, MeetingRequest)} against the index of {@code snapshot}. The returned
+   * collection is read-only.
+   */
+  public Collection<TimeRange> queryMaximizingOptional(
+      EventStore.Snapshot snapshot, MeetingRequest request) {
+    int[] attendees = request.getAttendeeIds();
+    int[] optionalAttendees = request.getOptionalAttendeeIds();
+    // People without an ID are free all day and have no IDs to key on, but whether there are any
+    // still decides if a meeting nobody else can make is worth returning.
+    int strangers = (request.getAttendees().size() > attendees.length ? 2 : 0)
+        + (request.getOptionalAttendees().size() > optionalAttendees.length ? 1 : 0);
+    Key key = new Key(true, attendees, optionalAttendees, strangers, request.getDuration());
+    return lookup(snapshot, key, request);
+  }
+
+  /**
+   * Returns the number of lookups that were answered from the cache.
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of lookups that had to run the query.
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the number of answers currently held, including ones that are no longer valid but
+   * haven't been looked up since.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private Collection<TimeRange> lookup(
+      EventStore.Snapshot snapshot, Key key, MeetingRequest request) {
+    long stamp = key.stamp(snapshot);
+    long now = clock.getAsLong();
+
+    CachedAnswer cached;
+    synchronized (this) {
+      cached = entries.get(key);
+    }
+    if (cached != null && cached.stamp == stamp && now - cached.createdAt < ttlNanos) {
+      hits.increment();
+      return cached.answer;
+    }
+    misses.increment();
+
+    // Run the query outside the lock so that other lookups aren't held up by it.
+    AttendeeCalendarIndex index = snapshot.getIndex();
+    List<TimeRange> answer = Collections.unmodifiableList(new ArrayList<>(key.maximizingOptional
+        ? query.queryMaximizingOptional(index, request)
+        : query.query(index, request)));
+    synchronized (this) {
+      entries.put(key, new CachedAnswer(answer, stamp, now));
+    }
+    return answer;
+  }
+
+  /**
+   * What an answer depends on. The arrays are sorted and never modified.
+   */
+  private static final class Key {
+    private final boolean maximizingOptional;
+    private final int[] attendees;
+    private final int[] optionalAttendees;
+    // Bit 1 is set if some required attendees have no ID, bit 0 if some optional ones don't.
+    private final int strangers;
+    private final long duration;
+    private final int hash;
+
+    Key(boolean maximizingOptional, int[] attendees, int[] optionalAttendees, int strangers,
+        long duration) {
+      this.maximizingOptional = maximizingOptional;
+      this.attendees = attendees;
+      this.optionalAttendees = optionalAttendees;
+      this.strangers = strangers;
+      this.duration = duration;
+      this.hash = 31 * (31 * (31 * (31 * Boolean.hashCode(maximizingOptional)
+          + Arrays.hashCode(attendees)) + Arrays.hashCode(optionalAttendees)) + strangers)
+          + Long.hashCode(duration);
+    }
+
+    /**
+     * Returns the latest version of {@code snapshot} in which any of the attendees changed. The
+     * answer for this key is the same in any two snapshots with the same stamp.
+     */
+    long stamp(EventStore.Snapshot snapshot) {
+      long stamp = 0;
+      for (int attendee : attendees) {
+        stamp = Math.max(stamp, snapshot.getAttendeeVersion(attendee));
+      }
+      for (int attendee : optionalAttendees) {
+        stamp = Math.max(stamp, snapshot.getAttendeeVersion(attendee));
+      }
+      return stamp;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return maximizingOptional == key.maximizingOptional && duration == key.duration
+          && strangers == key.strangers
+          && Arrays.equals(attendees, key.attendees)
+          && Arrays.equals(optionalAttendees, key.optionalAttendees);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private static final class CachedAnswer {
+    private final List<TimeRange> answer;
+    private final long stamp;
+    private final long createdAt;
+
+    CachedAnswer(List<TimeRange> answer, long stamp, long createdAt) {
+      this.answer = answer;
+      this.stamp = stamp;
+      this.createdAt = createdAt;
+    }
+  }
+}
@@ -39,6 +39,10 @@ public final class MeetingRequest {
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // Sorted {@code AttendeeIds} of the attendees, computed on first use. Not sent to the client.
+  private transient int[] attendeeIds;
+  private transient int[] optionalAttendeeIds;
+
   public MeetingRequest(Collection<String> attendees, long duration) {
     this.duration = duration;
     this.attendees.addAll(attendees);
@@ -64,7 +68,41 @@ public final class MeetingRequest {
   public void addOptionalAttendee(String attendee) {
     if (!attendees.contains(attendee)) {
       optional_attendees.add(attendee);
+      optionalAttendeeIds = null;
+    }
+  }
+
+  /**
+   * Returns the sorted IDs of the people who are required to attend this meeting, as assigned by
+   * {@code AttendeeIds}. People whose names have no ID yet have no events and are left out. The
+   * returned array must not be modified.
+   */
+  public int[] getAttendeeIds() {
+    if (attendeeIds != null) {
+      return attendeeIds;
+    }
+    int[] ids = AttendeeIds.lookupAll(attendees);
+    // Only keep the IDs once every name has one, since an unknown name may get one later.
+    if (ids.length == attendees.size()) {
+      attendeeIds = ids;
+    }
+    return ids;
+  }
+
+  /**
+   * Returns the sorted IDs of the people who are optional to attend this meeting, as assigned by
+   * {@code AttendeeIds}. People whose names have no ID yet have no events and are left out. The
+   * returned array must not be modified.
+   */
+  public int[] getOptionalAttendeeIds() {
+    if (optionalAttendeeIds != null) {
+      return optionalAttendeeIds;
+    }
+    int[] ids = AttendeeIds.lookupAll(optional_attendees);
+    if (ids.length == optional_attendees.size()) {
+      optionalAttendeeIds = ids;
     }
+    return ids;
   }
 
   /**
@@ -0,0 +1,144 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+
+/**
+ * One bit for every minute of the day, set when the minute is busy. Combining the busy times of
+ * many people is a handful of word-wide ORs no matter how many events they have.
+ */
+final class MinuteMask {
+  static final int MINUTES = TimeRange.WHOLE_DAY.duration();
+  static final int WORDS = (MINUTES + Long.SIZE - 1) / Long.SIZE;
+
+  private final long[] words;
+
+  MinuteMask() {
+    this.words = new long[WORDS];
+  }
+
+  private MinuteMask(long[] words) {
+    this.words = words;
+  }
+
+  /**
+   * Creates a mask with the minutes of {@code busy} set.
+   */
+  static MinuteMask of(TimeRangeSet busy) {
+    MinuteMask mask = new MinuteMask();
+    for (int i = 0; i < busy.size(); i++) {
+      mask.set(busy.start(i), busy.end(i));
+    }
+    // Handing the filled words to a new mask's final field lets the mask be shared between
+    // threads without a lock.
+    return new MinuteMask(mask.words);
+  }
+
+  /**
+   * Sets every minute from {@code start} (inclusive) to {@code end} (exclusive), clipped to the
+   * day.
+   */
+  void set(int start, int end) {
+    start = Math.max(start, 0);
+    end = Math.min(end, MINUTES);
+    if (start >= end) {
+      return;
+    }
+
+    int firstWord = start >>> 6;
+    int lastWord = (end - 1) >>> 6;
+    // Shifts only use the low six bits, so these are the masks from the start bit upwards and from
+    // the end bit downwards within their words.
+    long firstMask = -1L << start;
+    long lastMask = -1L >>> -end;
+    if (firstWord == lastWord) {
+      words[firstWord] |= firstMask & lastMask;
+      return;
+    }
+    words[firstWord] |= firstMask;
+    Arrays.fill(words, firstWord + 1, lastWord, -1L);
+    words[lastWord] |= lastMask;
+  }
+
+  /**
+   * Sets every minute that is set in {@code other}.
+   */
+  void or(MinuteMask other) {
+    for (int i = 0; i < WORDS; i++) {
+      words[i] |= other.words[i];
+    }
+  }
+
+  boolean isSet(int minute) {
+    return (words[minute >>> 6] & (1L << minute)) != 0;
+  }
+
+  /**
+   * Returns the runs of unset minutes that are at least {@code duration} minutes long.
+   */
+  TimeRangeSet freeRuns(long duration) {
+    TimeRangeSet.Builder free = new TimeRangeSet.Builder();
+    int start = nextClear(0);
+    while (start < MINUTES) {
+      int end = nextSet(start);
+      if (end - start >= duration) {
+        free.add(start, end);
+      }
+      start = nextClear(end);
+    }
+    return free.build();
+  }
+
+  MinuteMask copy() {
+    return new MinuteMask(words.clone());
+  }
+
+  /**
+   * Returns the first unset minute at or after {@code from}, or {@link #MINUTES} if there is none.
+   */
+  private int nextClear(int from) {
+    if (from >= MINUTES) {
+      return MINUTES;
+    }
+    int w = from >>> 6;
+    long word = ~words[w] & (-1L << from);
+    while (word == 0) {
+      if (++w == WORDS) {
+        return MINUTES;
+      }
+      word = ~words[w];
+    }
+    return Math.min(w * Long.SIZE + Long.numberOfTrailingZeros(word), MINUTES);
+  }
+
+  /**
+   * Returns the first set minute at or after {@code from}, or {@link #MINUTES} if there is none.
+   */
+  private int nextSet(int from) {
+    if (from >= MINUTES) {
+      return MINUTES;
+    }
+    int w = from >>> 6;
+    long word = words[w] & (-1L << from);
+    while (word == 0) {
+      if (++w == WORDS) {
+        return MINUTES;
+      }
+      word = words[w];
+    }
+    return Math.min(w * Long.SIZE + Long.numberOfTrailingZeros(word), MINUTES);
+  }
+}
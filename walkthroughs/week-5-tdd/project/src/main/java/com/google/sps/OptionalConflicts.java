@@ -0,0 +1,148 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * For every possible meeting start time, the number of optional attendees who could not attend a
+ * meeting of a fixed duration starting then. The counts form a step function that is built with a
+ * single counting sweep, so the cost grows with the number of busy ranges and never with the number
+ * of subsets of optional attendees.
+ */
+final class OptionalConflicts {
+  // {@code counts[i]} applies to every start time from {@code points[i]} up to (excluding)
+  // {@code points[i + 1]}. Start times before {@code points[0]} have no conflicts.
+  private final int[] points;
+  private final int[] counts;
+
+  private OptionalConflicts(int[] points, int[] counts) {
+    this.points = points;
+    this.counts = counts;
+  }
+
+  /**
+   * Counts, for each start time, the {@code optionalAttendees} who are busy at some point during a
+   * meeting of {@code duration} minutes starting then.
+   */
+  static OptionalConflicts of(
+      AttendeeCalendarIndex index, int[] optionalAttendees, long duration) {
+    int length = (int) Math.max(Math.min(duration, TimeRange.WHOLE_DAY.duration()), 1);
+
+    int total = 0;
+    for (int attendee : optionalAttendees) {
+      total += index.getBusySet(attendee).size();
+    }
+
+    // A busy range [s, e) conflicts with every meeting starting in (s - length, e). Widen each
+    // range by that amount, merge the widened ranges of one person so nobody is counted twice, and
+    // record where each person's conflicts open and close.
+    int[] opens = new int[total];
+    int[] closes = new int[total];
+    int n = 0;
+    for (int attendee : optionalAttendees) {
+      TimeRangeSet busy = index.getBusySet(attendee);
+      int first = n;
+      for (int i = 0; i < busy.size(); i++) {
+        int open = busy.start(i) - length + 1;
+        int close = busy.end(i);
+        if (n > first && open <= closes[n - 1]) {
+          closes[n - 1] = close;
+        } else {
+          opens[n] = open;
+          closes[n++] = close;
+        }
+      }
+    }
+    Arrays.sort(opens, 0, n);
+    Arrays.sort(closes, 0, n);
+
+    // Sweep the opens and closes in time order, keeping one entry per distinct time with the
+    // number of conflicts from that time on.
+    int[] points = new int[2 * n];
+    int[] counts = new int[2 * n];
+    int size = 0;
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < n || j < n) {
+      int point = (j >= n || (i < n && opens[i] < closes[j])) ? opens[i] : closes[j];
+      while (i < n && opens[i] == point) {
+        count++;
+        i++;
+      }
+      while (j < n && closes[j] == point) {
+        count--;
+        j++;
+      }
+      if (size > 0 && counts[size - 1] == count) {
+        continue;
+      }
+      points[size] = point;
+      counts[size++] = count;
+    }
+    return new OptionalConflicts(Arrays.copyOf(points, size), Arrays.copyOf(counts, size));
+  }
+
+  /**
+   * Returns the number of optional attendees who cannot attend a meeting starting at
+   * {@code start}.
+   */
+  int countAt(int start) {
+    int i = Arrays.binarySearch(points, start);
+    if (i < 0) {
+      i = -i - 2;
+    }
+    return i < 0 ? 0 : counts[i];
+  }
+
+  /**
+   * Returns the fewest conflicts of any start time from {@code from} to {@code to} (inclusive).
+   */
+  int minCount(int from, int to) {
+    int min = countAt(from);
+    for (int i = firstPointAfter(from); i < points.length && points[i] <= to; i++) {
+      min = Math.min(min, counts[i]);
+    }
+    return min;
+  }
+
+  /**
+   * Adds to {@code slots} every meeting-sized range starting from {@code from} to {@code to}
+   * (inclusive) that has exactly {@code count} conflicts. Start times that are next to each other
+   * are merged into one range ending {@code duration} minutes after the last of them. Ranges are
+   * added in start order and may overlap, since the start times between them are worse.
+   */
+  void addSlotsWithCount(int from, int to, int count, int duration, List<TimeRange> slots) {
+    int runStart = countAt(from) == count ? from : -1;
+    for (int i = firstPointAfter(from); i < points.length && points[i] <= to; i++) {
+      if (counts[i] == count && runStart < 0) {
+        runStart = points[i];
+      } else if (counts[i] != count && runStart >= 0) {
+        slots.add(TimeRange.fromStartEnd(runStart, points[i] - 1 + duration, false));
+        runStart = -1;
+      }
+    }
+    if (runStart >= 0) {
+      slots.add(TimeRange.fromStartEnd(runStart, to + duration, false));
+    }
+  }
+
+  private int firstPointAfter(int start) {
+    int i = Arrays.binarySearch(points, start);
+    return i >= 0 ? i + 1 : -i - 1;
+  }
+}
@@ -0,0 +1,196 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An {@code Event} that repeats on a schedule of days. Occurrences are never stored. They are
+ * computed one at a time, only for the window being asked about, so a standup that repeats for
+ * years costs the same as a single event when answering a one-day query.
+ */
+public final class RecurringEvent {
+  /**
+   * The days an event repeats on, starting from its first day.
+   */
+  public enum Frequency {
+    DAILY,
+    /** Every seven days, on the weekday of the first day. */
+    WEEKLY,
+    /** Monday to Friday. */
+    WEEKDAYS
+  }
+
+  /** Use as the last day of an event that repeats forever. */
+  public static final long FOREVER = Long.MAX_VALUE / EpochMinuteRange.MINUTES_PER_DAY - 1;
+
+  private final Event event;
+  private final Frequency frequency;
+  private final long firstDay;
+  private final long lastDay;
+
+  // Days, sorted, on which the event would occur but has been called off.
+  private final long[] exceptions;
+
+  /**
+   * Creates a new recurring event. Days are counted in days since the epoch.
+   *
+   * @param event The title, attendees and time of day of every occurrence. Must be non-null.
+   * @param frequency Which days the event repeats on. Must be non-null.
+   * @param firstDay The first day the event can occur.
+   * @param lastDay The last day the event can occur, or {@link #FOREVER}. Must not be before
+   *     {@code firstDay}.
+   * @param exceptions The days on which the event doesn't occur. Must be non-null.
+   */
+  public RecurringEvent(Event event, Frequency frequency, long firstDay, long lastDay,
+      Collection<Long> exceptions) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    if (frequency == null) {
+      throw new IllegalArgumentException("frequency cannot be null");
+    }
+
+    if (lastDay < firstDay || lastDay > FOREVER) {
+      throw new IllegalArgumentException("lastDay must be from firstDay up to FOREVER");
+    }
+
+    if (exceptions == null) {
+      throw new IllegalArgumentException(
+          "exceptions cannot be null. Use empty collection instead.");
+    }
+
+    this.event = event;
+    this.frequency = frequency;
+    this.firstDay = firstDay;
+    this.lastDay = lastDay;
+    this.exceptions = new long[exceptions.size()];
+    int i = 0;
+    for (long day : exceptions) {
+      this.exceptions[i++] = day;
+    }
+    Arrays.sort(this.exceptions);
+  }
+
+  /**
+   * Returns the event that takes place on every occurrence.
+   */
+  public Event getEvent() {
+    return event;
+  }
+
+  public Frequency getFrequency() {
+    return frequency;
+  }
+
+  public long getFirstDay() {
+    return firstDay;
+  }
+
+  public long getLastDay() {
+    return lastDay;
+  }
+
+  /**
+   * Returns whether the event takes place on {@code epochDay}.
+   */
+  public boolean occursOn(long epochDay) {
+    return nextDay(epochDay) == epochDay;
+  }
+
+  /**
+   * Returns the occurrences that overlap the window from {@code from} (inclusive) to {@code to}
+   * (exclusive), in epoch minutes, clipped to that window and ordered by start. The first
+   * occurrence is found by arithmetic on days rather than by stepping from the first day, and
+   * each further one is computed as the iterator advances.
+   */
+  public Iterator<EpochMinuteRange> occurrences(long from, long to) {
+    return new Iterator<EpochMinuteRange>() {
+      private long day = nextDay(Math.max(EpochMinuteRange.dayOf(from), firstDay));
+      private EpochMinuteRange next = advance();
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public EpochMinuteRange next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        EpochMinuteRange current = next;
+        next = advance();
+        return current;
+      }
+
+      private EpochMinuteRange advance() {
+        // Each occurrence stays within its day, so only the first day can end before the window
+        // starts.
+        while (day <= lastDay) {
+          EpochMinuteRange occurrence = EpochMinuteRange.onDay(day, event.getWhen());
+          if (occurrence.start() >= to) {
+            break;
+          }
+          day = nextDay(day + 1);
+          long start = Math.max(occurrence.start(), from);
+          long end = Math.min(occurrence.end(), to);
+          if (start < end) {
+            return EpochMinuteRange.fromStartEnd(start, end);
+          }
+        }
+        day = Long.MAX_VALUE;
+        return null;
+      }
+    };
+  }
+
+  /**
+   * Returns the first day on or after {@code day} that the event occurs, or a day after
+   * {@code lastDay} if there is none.
+   */
+  private long nextDay(long day) {
+    day = Math.max(day, firstDay);
+    while (day <= lastDay) {
+      day = nextScheduledDay(day);
+      if (day > lastDay || Arrays.binarySearch(exceptions, day) < 0) {
+        return day;
+      }
+      day++;
+    }
+    return day;
+  }
+
+  /**
+   * Returns the first day on or after {@code day}, which is not before the first day, that the
+   * schedule covers, ignoring exceptions.
+   */
+  private long nextScheduledDay(long day) {
+    switch (frequency) {
+      case WEEKLY:
+        return firstDay + Math.floorDiv(day - firstDay + 6, 7) * 7;
+      case WEEKDAYS:
+        // Day 0 of the epoch was a Thursday, so this counts Monday as 0 and Sunday as 6.
+        int dayOfWeek = (int) Math.floorMod(day + 3, 7);
+        return dayOfWeek < 5 ? day : day + 7 - dayOfWeek;
+      default:
+        return day;
+    }
+  }
+}
@@ -0,0 +1,113 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The busy times of every bookable room, ordered by room name. Rooms are kept apart from
+ * {@code AttendeeCalendarIndex} so that a room and a person with the same name never mix.
+ * Considered read-only once built.
+ */
+public final class RoomCalendars {
+  private final String[] rooms;
+  private final TimeRangeSet[] busy;
+
+  private RoomCalendars(String[] rooms, TimeRangeSet[] busy) {
+    this.rooms = rooms;
+    this.busy = busy;
+  }
+
+  /**
+   * Builds the calendars of the rooms in {@code eventsByRoom}, where each room is busy during its
+   * events.
+   *
+   * @param eventsByRoom The events booked in each room. Must be non-null.
+   */
+  public static RoomCalendars of(Map<String, ? extends Collection<Event>> eventsByRoom) {
+    if (eventsByRoom == null) {
+      throw new IllegalArgumentException("eventsByRoom cannot be null. Use empty map instead.");
+    }
+
+    Builder builder = new Builder();
+    for (Map.Entry<String, ? extends Collection<Event>> entry : eventsByRoom.entrySet()) {
+      builder.addRoom(entry.getKey());
+      for (Event event : entry.getValue()) {
+        builder.add(entry.getKey(), event.getWhen());
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the number of rooms.
+   */
+  public int size() {
+    return rooms.length;
+  }
+
+  /**
+   * Returns the name of the {@code i}-th room.
+   */
+  public String getRoom(int i) {
+    return rooms[i];
+  }
+
+  /**
+   * Returns the busy times of the {@code i}-th room.
+   */
+  public TimeRangeSet getBusySet(int i) {
+    return busy[i];
+  }
+
+  /**
+   * Collects the busy times of rooms in any order.
+   */
+  public static final class Builder {
+    private final Map<String, TimeRangeSet.Builder> builders = new TreeMap<>();
+
+    /**
+     * Adds {@code room} without any busy times, if it isn't known yet.
+     */
+    public Builder addRoom(String room) {
+      if (room == null) {
+        throw new IllegalArgumentException("room cannot be null");
+      }
+
+      builders.computeIfAbsent(room, key -> new TimeRangeSet.Builder());
+      return this;
+    }
+
+    /**
+     * Marks {@code room} as busy during {@code when}.
+     */
+    public Builder add(String room, TimeRange when) {
+      addRoom(room);
+      builders.get(room).add(when);
+      return this;
+    }
+
+    public RoomCalendars build() {
+      String[] rooms = builders.keySet().toArray(new String[0]);
+      TimeRangeSet[] busy = new TimeRangeSet[rooms.length];
+      for (int i = 0; i < rooms.length; i++) {
+        busy[i] = builders.get(rooms[i]).build();
+      }
+      return new RoomCalendars(rooms, busy);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the times when every required attendee of a {@code MeetingRequest} is free and a room is
+ * free too. The free times of the attendees are computed once, and then each room's calendar is
+ * checked against them, in parallel on a {@code ForkJoinPool} when there are many rooms.
+ */
+public final class RoomMeetingQuery {
+  // Below this many rooms, handing work to other threads costs more than it saves.
+  private static final int PARALLEL_THRESHOLD = 32;
+
+  private final FindMeetingQuery query;
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates a room query that checks many rooms on the common {@code ForkJoinPool}.
+   */
+  public RoomMeetingQuery() {
+    this(new FindMeetingQuery(), ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a room query.
+   *
+   * @param query Finds the free times of the attendees. Must be non-null and safe to share.
+   * @param pool The pool used when there are many rooms. Must be non-null.
+   */
+  public RoomMeetingQuery(FindMeetingQuery query, ForkJoinPool pool) {
+    if (query == null) {
+      throw new IllegalArgumentException("query cannot be null");
+    }
+
+    if (pool == null) {
+      throw new IllegalArgumentException("pool cannot be null");
+    }
+
+    this.query = query;
+    this.pool = pool;
+  }
+
+  /**
+   * Returns the times, ordered by start and then end, that are at least as long as the requested
+   * meeting and during which every required attendee and each of the slot's rooms are free. A room
+   * that is free for part of a longer slot shows up on a separate, shorter slot.
+   */
+  public List<Slot> query(
+      AttendeeCalendarIndex index, RoomCalendars rooms, MeetingRequest request) {
+    TimeRangeSet free = query.freeTimes(index, request);
+    if (free.isEmpty() || rooms.size() == 0) {
+      return Collections.emptyList();
+    }
+
+    long duration = Math.max(request.getDuration(), 1);
+    TimeRangeSet[] freeByRoom = new TimeRangeSet[rooms.size()];
+    if (rooms.size() < PARALLEL_THRESHOLD) {
+      for (int i = 0; i < freeByRoom.length; i++) {
+        freeByRoom[i] = free.subtract(rooms.getBusySet(i)).minDuration(duration);
+      }
+    } else {
+      // Each task writes only its own room's entry. Running the stream from inside the pool makes
+      // its tasks use that pool instead of the common one.
+      pool.submit(() -> IntStream.range(0, freeByRoom.length)
+          .parallel()
+          .forEach(i -> freeByRoom[i] = free.subtract(rooms.getBusySet(i)).minDuration(duration)))
+          .join();
+    }
+
+    // Group the rooms by the exact range they are free for. Keys pack the start into the high bits
+    // and the end into the low bits so that they sort by start and then end. Rooms are visited in
+    // name order, so each slot lists its rooms in that order too.
+    Map<Long, List<String>> roomsByRange = new TreeMap<>();
+    for (int i = 0; i < freeByRoom.length; i++) {
+      TimeRangeSet roomFree = freeByRoom[i];
+      for (int j = 0; j < roomFree.size(); j++) {
+        long key = ((long) roomFree.start(j) << 32) | roomFree.end(j);
+        roomsByRange.computeIfAbsent(key, k -> new ArrayList<>()).add(rooms.getRoom(i));
+      }
+    }
+
+    List<Slot> slots = new ArrayList<>(roomsByRange.size());
+    for (Map.Entry<Long, List<String>> entry : roomsByRange.entrySet()) {
+      int start = (int) (entry.getKey() >>> 32);
+      int end = (int) (long) entry.getKey();
+      slots.add(new Slot(TimeRange.fromStartEnd(start, end, false),
+          Collections.unmodifiableList(entry.getValue())));
+    }
+    return slots;
+  }
+
+  /**
+   * A range of time and the rooms that are free for all of it.
+   */
+  public static final class Slot {
+    private final TimeRange when;
+    private final List<String> rooms;
+
+    Slot(TimeRange when, List<String> rooms) {
+      this.when = when;
+      this.rooms = rooms;
+    }
+
+    public TimeRange getWhen() {
+      return when;
+    }
+
+    /**
+     * Returns a read-only list of the free rooms, ordered by name.
+     */
+    public List<String> getRooms() {
+      return rooms;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Slot && when.equals(((Slot) other).when)
+          && rooms.equals(((Slot) other).rooms);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * when.hashCode() + rooms.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return when + " " + rooms;
+    }
+  }
+}
@@ -0,0 +1,139 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * How {@link FindMeetingQuery#queryTopK} ranks meeting times. Every time gets a penalty, and lower
+ * penalties rank first. The penalty adds up, each with its own weight: the start time in minutes,
+ * the number of optional attendees who can't make it, and the minutes that overlap lunch.
+ */
+public final class SlotPreferences {
+  /**
+   * Prefers earlier meetings, trades one missing optional attendee for an hour's delay, and avoids
+   * meetings over lunch from 12 to 1 PM. Start times are every 15 minutes.
+   */
+  public static final SlotPreferences DEFAULT = new Builder().build();
+
+  private final long startWeight;
+  private final long conflictWeight;
+  private final long lunchWeight;
+  private final TimeRange lunch;
+  private final int step;
+
+  private SlotPreferences(Builder builder) {
+    this.startWeight = builder.startWeight;
+    this.conflictWeight = builder.conflictWeight;
+    this.lunchWeight = builder.lunchWeight;
+    this.lunch = builder.lunch;
+    this.step = builder.step;
+  }
+
+  /**
+   * Returns the minutes between the start times that are considered. The start of every free
+   * range is always considered as well.
+   */
+  public int getStep() {
+    return step;
+  }
+
+  /**
+   * Returns whether optional attendees affect the ranking at all.
+   */
+  boolean countsConflicts() {
+    return conflictWeight > 0;
+  }
+
+  /**
+   * Returns the penalty of a meeting of {@code length} minutes starting at {@code start} that
+   * {@code conflicts} optional attendees can't make.
+   */
+  long penalty(int start, int length, int conflicts) {
+    int lunchOverlap =
+        Math.max(0, Math.min(start + length, lunch.end()) - Math.max(start, lunch.start()));
+    return startWeight * start + conflictWeight * conflicts + lunchWeight * lunchOverlap;
+  }
+
+  /**
+   * Returns a penalty that no meeting starting at or after {@code start} can go below. It never
+   * decreases as {@code start} grows.
+   */
+  long lowerBound(int start) {
+    return startWeight * start;
+  }
+
+  /**
+   * Creates {@code SlotPreferences}, starting from the weights of {@link #DEFAULT}.
+   */
+  public static final class Builder {
+    private long startWeight = 1;
+    private long conflictWeight = 60;
+    private long lunchWeight = 1;
+    private TimeRange lunch = TimeRange.fromStartEnd(
+        TimeRange.getTimeInMinutes(12, 0), TimeRange.getTimeInMinutes(13, 0), false);
+    private int step = 15;
+
+    /**
+     * Sets the penalty per minute of start time.
+     */
+    public Builder startWeight(long weight) {
+      this.startWeight = checkWeight(weight);
+      return this;
+    }
+
+    /**
+     * Sets the penalty per optional attendee who can't make the meeting.
+     */
+    public Builder conflictWeight(long weight) {
+      this.conflictWeight = checkWeight(weight);
+      return this;
+    }
+
+    /**
+     * Sets the penalty per minute of the meeting that falls into {@code lunch}.
+     */
+    public Builder lunch(TimeRange lunch, long weight) {
+      if (lunch == null) {
+        throw new IllegalArgumentException("lunch cannot be null");
+      }
+
+      this.lunch = lunch;
+      this.lunchWeight = checkWeight(weight);
+      return this;
+    }
+
+    /**
+     * Sets the minutes between the start times that are considered.
+     */
+    public Builder step(int step) {
+      if (step <= 0) {
+        throw new IllegalArgumentException("step must be positive");
+      }
+
+      this.step = step;
+      return this;
+    }
+
+    public SlotPreferences build() {
+      return new SlotPreferences(this);
+    }
+
+    private static long checkWeight(long weight) {
+      if (weight < 0) {
+        throw new IllegalArgumentException("weight cannot be negative");
+      }
+      return weight;
+    }
+  }
+}
@@ -0,0 +1,391 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable set of minutes, stored as sorted, disjoint ranges in two parallel {@code int}
+ * arrays. Ranges that overlap or touch are always merged, so two sets covering the same minutes are
+ * equal. Unlike a collection of {@code TimeRange}s, set operations only allocate the result arrays
+ * and never one object per range.
+ */
+public final class TimeRangeSet {
+  public static final TimeRangeSet EMPTY = new TimeRangeSet(new int[0], new int[0]);
+
+  public static final TimeRangeSet WHOLE_DAY =
+      of(TimeRange.WHOLE_DAY.start(), TimeRange.WHOLE_DAY.end());
+
+  // Start (inclusive) and end (exclusive) of each range, ordered by start.
+  private final int[] starts;
+  private final int[] ends;
+
+  private TimeRangeSet(int[] starts, int[] ends) {
+    this.starts = starts;
+    this.ends = ends;
+  }
+
+  /**
+   * Creates a set holding the single range from {@code start} (inclusive) to {@code end}
+   * (exclusive). The set is empty if the range is.
+   */
+  public static TimeRangeSet of(int start, int end) {
+    return end > start ? new TimeRangeSet(new int[] {start}, new int[] {end}) : EMPTY;
+  }
+
+  /**
+   * Creates a set covering every minute of {@code ranges}.
+   */
+  public static TimeRangeSet of(Collection<TimeRange> ranges) {
+    Builder builder = new Builder(ranges.size());
+    for (TimeRange range : ranges) {
+      builder.add(range.start(), range.end());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the union of all {@code sets}. This is cheaper than repeated calls to {@link #union}
+   * because the ranges are merged once instead of once per set.
+   */
+  public static TimeRangeSet unionAll(Collection<TimeRangeSet> sets) {
+    int total = 0;
+    for (TimeRangeSet set : sets) {
+      total += set.size();
+    }
+    Builder builder = new Builder(total);
+    for (TimeRangeSet set : sets) {
+      for (int i = 0; i < set.size(); i++) {
+        builder.add(set.starts[i], set.ends[i]);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the number of disjoint ranges in this set.
+   */
+  public int size() {
+    return starts.length;
+  }
+
+  public boolean isEmpty() {
+    return starts.length == 0;
+  }
+
+  /**
+   * Returns the start of the {@code i}-th range.
+   */
+  public int start(int i) {
+    return starts[i];
+  }
+
+  /**
+   * Returns the closing exclusive bound of the {@code i}-th range.
+   */
+  public int end(int i) {
+    return ends[i];
+  }
+
+  /**
+   * Returns the total number of minutes covered by this set.
+   */
+  public int totalDuration() {
+    int total = 0;
+    for (int i = 0; i < starts.length; i++) {
+      total += ends[i] - starts[i];
+    }
+    return total;
+  }
+
+  /**
+   * Checks if {@code point} falls within one of the ranges of this set.
+   */
+  public boolean contains(int point) {
+    int i = indexOfRangeStartingAtOrBefore(point);
+    return i >= 0 && point < ends[i];
+  }
+
+  /**
+   * Returns the minutes covered by this set, {@code other}, or both.
+   */
+  public TimeRangeSet union(TimeRangeSet other) {
+    int[] outStarts = new int[size() + other.size()];
+    int[] outEnds = new int[outStarts.length];
+    int length = 0;
+
+    int i = 0;
+    int j = 0;
+    while (i < size() || j < other.size()) {
+      // Take whichever range starts first, then either extend the last output range or open a new
+      // one.
+      int start;
+      int end;
+      if (j >= other.size() || (i < size() && starts[i] <= other.starts[j])) {
+        start = starts[i];
+        end = ends[i++];
+      } else {
+        start = other.starts[j];
+        end = other.ends[j++];
+      }
+
+      if (length > 0 && start <= outEnds[length - 1]) {
+        outEnds[length - 1] = Math.max(outEnds[length - 1], end);
+      } else {
+        outStarts[length] = start;
+        outEnds[length++] = end;
+      }
+    }
+    return create(outStarts, outEnds, length);
+  }
+
+  /**
+   * Returns the minutes covered by both this set and {@code other}.
+   */
+  public TimeRangeSet intersection(TimeRangeSet other) {
+    int[] outStarts = new int[size() + other.size()];
+    int[] outEnds = new int[outStarts.length];
+    int length = 0;
+
+    int i = 0;
+    int j = 0;
+    while (i < size() && j < other.size()) {
+      int start = Math.max(starts[i], other.starts[j]);
+      int end = Math.min(ends[i], other.ends[j]);
+      if (start < end) {
+        outStarts[length] = start;
+        outEnds[length++] = end;
+      }
+
+      // Whichever range ends first cannot overlap anything else in the other set.
+      if (ends[i] < other.ends[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return create(outStarts, outEnds, length);
+  }
+
+  /**
+   * Returns the minutes covered by this set but not by {@code other}.
+   */
+  public TimeRangeSet subtract(TimeRangeSet other) {
+    // Each range of {@code other} can split at most one of our ranges in two.
+    int[] outStarts = new int[size() + other.size()];
+    int[] outEnds = new int[outStarts.length];
+    int length = 0;
+
+    int j = 0;
+    for (int i = 0; i < size(); i++) {
+      int cursor = starts[i];
+      int end = ends[i];
+
+      // Skip the ranges of {@code other} that end before this range begins.
+      while (j < other.size() && other.ends[j] <= cursor) {
+        j++;
+      }
+
+      // Cut out every range of {@code other} that overlaps this one. A range that runs past our end
+      // is kept for the next iteration because it may also overlap the next range.
+      while (j < other.size() && other.starts[j] < end) {
+        if (other.starts[j] > cursor) {
+          outStarts[length] = cursor;
+          outEnds[length++] = other.starts[j];
+        }
+        cursor = Math.max(cursor, other.ends[j]);
+        if (other.ends[j] >= end) {
+          break;
+        }
+        j++;
+      }
+
+      if (cursor < end) {
+        outStarts[length] = cursor;
+        outEnds[length++] = end;
+      }
+    }
+    return create(outStarts, outEnds, length);
+  }
+
+  /**
+   * Returns the ranges of this set that are at least {@code duration} minutes long.
+   */
+  public TimeRangeSet minDuration(long duration) {
+    int length = 0;
+    for (int i = 0; i < size(); i++) {
+      if (ends[i] - starts[i] >= duration) {
+        length++;
+      }
+    }
+    if (length == size()) {
+      return this;
+    }
+
+    int[] outStarts = new int[length];
+    int[] outEnds = new int[length];
+    length = 0;
+    for (int i = 0; i < size(); i++) {
+      if (ends[i] - starts[i] >= duration) {
+        outStarts[length] = starts[i];
+        outEnds[length++] = ends[i];
+      }
+    }
+    return new TimeRangeSet(outStarts, outEnds);
+  }
+
+  /**
+   * Returns the minutes of this set from {@code from} (inclusive) to {@code to} (exclusive). The
+   * ranges around {@code from} are found by binary search, so only the ranges in that window are
+   * visited.
+   */
+  public TimeRangeSet clip(int from, int to) {
+    int first = Math.max(indexOfRangeStartingAtOrBefore(from), 0);
+    int last = indexOfRangeStartingAtOrBefore(to - 1);
+    if (from >= to || last < first) {
+      return EMPTY;
+    }
+
+    int[] outStarts = new int[last - first + 1];
+    int[] outEnds = new int[outStarts.length];
+    int length = 0;
+    for (int i = first; i <= last; i++) {
+      int start = Math.max(starts[i], from);
+      int end = Math.min(ends[i], to);
+      if (start < end) {
+        outStarts[length] = start;
+        outEnds[length++] = end;
+      }
+    }
+    return create(outStarts, outEnds, length);
+  }
+
+  /**
+   * Returns the ranges of this set as {@code TimeRange}s, ordered by start.
+   */
+  public List<TimeRange> toList() {
+    List<TimeRange> ranges = new ArrayList<>(size());
+    for (int i = 0; i < size(); i++) {
+      ranges.add(TimeRange.fromStartEnd(starts[i], ends[i], false));
+    }
+    return ranges;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof TimeRangeSet && equals(this, (TimeRangeSet) other);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(starts) + Arrays.hashCode(ends);
+  }
+
+  @Override
+  public String toString() {
+    return toList().toString();
+  }
+
+  /**
+   * Returns the index of the last range starting at or before {@code point}, or -1 if there is
+   * none.
+   */
+  int indexOfRangeStartingAtOrBefore(int point) {
+    int i = Arrays.binarySearch(starts, point);
+    return i >= 0 ? i : -i - 2;
+  }
+
+  private static boolean equals(TimeRangeSet a, TimeRangeSet b) {
+    return Arrays.equals(a.starts, b.starts) && Arrays.equals(a.ends, b.ends);
+  }
+
+  /**
+   * Creates a set from the first {@code length} ranges of {@code starts} and {@code ends}, which
+   * must be sorted and neither overlap nor touch. The arrays are used as is when they hold exactly
+   * {@code length} ranges, so they must not be modified afterwards.
+   */
+  static TimeRangeSet create(int[] starts, int[] ends, int length) {
+    if (length == 0) {
+      return EMPTY;
+    }
+    if (length == starts.length) {
+      return new TimeRangeSet(starts, ends);
+    }
+    return new TimeRangeSet(Arrays.copyOf(starts, length), Arrays.copyOf(ends, length));
+  }
+
+  /**
+   * Collects ranges in any order and merges them into a {@code TimeRangeSet}.
+   */
+  public static final class Builder {
+    // Each range is packed into one long, start in the high bits and end in the low bits, so that
+    // ordering the ranges is a primitive sort instead of a comparator over objects.
+    private long[] packed;
+    private int length = 0;
+
+    public Builder() {
+      this(16);
+    }
+
+    public Builder(int expectedSize) {
+      packed = new long[Math.max(expectedSize, 1)];
+    }
+
+    /**
+     * Adds the range from {@code start} (inclusive) to {@code end} (exclusive). Empty ranges are
+     * ignored. Times must not be negative.
+     */
+    public Builder add(int start, int end) {
+      if (start < 0) {
+        throw new IllegalArgumentException("start cannot be negative");
+      }
+      if (end <= start) {
+        return this;
+      }
+      if (length == packed.length) {
+        packed = Arrays.copyOf(packed, length * 2);
+      }
+      packed[length++] = ((long) start << 32) | end;
+      return this;
+    }
+
+    public Builder add(TimeRange range) {
+      return add(range.start(), range.end());
+    }
+
+    public TimeRangeSet build() {
+      Arrays.sort(packed, 0, length);
+
+      int[] starts = new int[length];
+      int[] ends = new int[length];
+      int size = 0;
+      for (int i = 0; i < length; i++) {
+        int start = (int) (packed[i] >>> 32);
+        int end = (int) packed[i];
+        // Extend the previous range when this one overlaps or touches it.
+        if (size > 0 && start <= ends[size - 1]) {
+          ends[size - 1] = Math.max(ends[size - 1], end);
+        } else {
+          starts[size] = start;
+          ends[size++] = end;
+        }
+      }
+      return create(starts, ends, size);
+    }
+  }
+}
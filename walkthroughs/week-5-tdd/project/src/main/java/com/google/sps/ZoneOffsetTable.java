@@ -0,0 +1,126 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The UTC offsets of one time zone, as a sorted table of the minutes at which the offset changes.
+ * Looking up an offset is a binary search over a {@code long} array, which is cheap enough to do
+ * for every busy range of every query, unlike asking {@code ZoneRules} each time. Tables cover
+ * 1970 to 2200 and fall back to the zone's rules outside that span.
+ */
+public final class ZoneOffsetTable {
+  private static final long TABLE_START = 0;
+  private static final long TABLE_END =
+      LocalDate.of(2200, 1, 1).toEpochDay() * EpochMinuteRange.MINUTES_PER_DAY;
+
+  private static final ConcurrentHashMap<ZoneId, ZoneOffsetTable> tablesByZone =
+      new ConcurrentHashMap<>();
+
+  /** The table of UTC itself, whose offset is always zero. */
+  public static final ZoneOffsetTable UTC = of(ZoneId.of("UTC"));
+
+  private final ZoneId zone;
+
+  // {@code offsets[i]} applies from {@code transitions[i - 1]} (inclusive) up to
+  // {@code transitions[i]} (exclusive), so there is one more offset than there are transitions.
+  // Transitions are in UTC epoch minutes, offsets in minutes.
+  private final long[] transitions;
+  private final int[] offsets;
+
+  private ZoneOffsetTable(ZoneId zone, long[] transitions, int[] offsets) {
+    this.zone = zone;
+    this.transitions = transitions;
+    this.offsets = offsets;
+  }
+
+  /**
+   * Returns the table of {@code zone}. Tables are built once per zone and then shared.
+   *
+   * @param zone The time zone. Must be non-null.
+   */
+  public static ZoneOffsetTable of(ZoneId zone) {
+    if (zone == null) {
+      throw new IllegalArgumentException("zone cannot be null");
+    }
+
+    return tablesByZone.computeIfAbsent(zone, ZoneOffsetTable::build);
+  }
+
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  /**
+   * Returns the offset from UTC, in minutes, at {@code utcMinute} minutes since the epoch.
+   */
+  public int offsetAt(long utcMinute) {
+    if (utcMinute < TABLE_START || utcMinute >= TABLE_END) {
+      return offsetFromRules(utcMinute);
+    }
+    int i = Arrays.binarySearch(transitions, utcMinute);
+    return offsets[i >= 0 ? i + 1 : -i - 1];
+  }
+
+  /**
+   * Returns the local wall-clock time, in minutes since the local epoch, at {@code utcMinute}.
+   */
+  public long toLocal(long utcMinute) {
+    return utcMinute + offsetAt(utcMinute);
+  }
+
+  /**
+   * Returns the UTC minute at which the local wall clock shows {@code localMinute}. Local times
+   * that are skipped or repeated when the offset changes map to a time next to the change.
+   */
+  public long toUtc(long localMinute) {
+    // The offset at the local time read as UTC is off by at most the offset itself, so looking it
+    // up once more from the corrected guess lands on the right side of any nearby transition.
+    int guess = offsetAt(localMinute);
+    return localMinute - offsetAt(localMinute - guess);
+  }
+
+  private int offsetFromRules(long utcMinute) {
+    return zone.getRules().getOffset(Instant.ofEpochSecond(utcMinute * 60)).getTotalSeconds() / 60;
+  }
+
+  private static ZoneOffsetTable build(ZoneId zone) {
+    ZoneRules rules = zone.getRules();
+    long[] transitions = new long[16];
+    int[] offsets = new int[17];
+    Instant start = Instant.ofEpochSecond(TABLE_START * 60);
+    offsets[0] = rules.getOffset(start).getTotalSeconds() / 60;
+
+    int n = 0;
+    ZoneOffsetTransition transition = rules.nextTransition(start);
+    while (transition != null && transition.toEpochSecond() < TABLE_END * 60) {
+      if (n == transitions.length) {
+        transitions = Arrays.copyOf(transitions, n * 2);
+        offsets = Arrays.copyOf(offsets, n * 2 + 1);
+      }
+      transitions[n] = transition.toEpochSecond() / 60;
+      offsets[++n] = transition.getOffsetAfter().getTotalSeconds() / 60;
+      transition = rules.nextTransition(transition.getInstant());
+    }
+    return new ZoneOffsetTable(zone, Arrays.copyOf(transitions, n), Arrays.copyOf(offsets, n + 1));
+  }
+}
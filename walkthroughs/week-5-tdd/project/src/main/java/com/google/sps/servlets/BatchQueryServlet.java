@@ -0,0 +1,66 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.AttendeeCalendarIndex;
+import com.google.sps.BatchMeetingQuery;
+import com.google.sps.EventStore;
+import com.google.sps.MeetingJson;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers an array of meeting requests in one call. The response is an array holding the possible
+ * meeting times of each request, in the same order as the requests.
+ */
+@WebServlet("/query-batch")
+public class BatchQueryServlet extends HttpServlet {
+  private static final BatchMeetingQuery BATCH_QUERY = new BatchMeetingQuery();
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Read the array of MeetingRequests straight off the request body.
+    List<MeetingRequest> meetingRequests;
+    try {
+      meetingRequests = MeetingJson.readMeetingRequests(new JsonReader(request.getReader()));
+    } catch (IOException | IllegalStateException | NumberFormatException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected an array of requests.");
+      return;
+    }
+
+    // Find the possible meeting times of every request against the same snapshot's index.
+    AttendeeCalendarIndex index = EventStore.getDefault().snapshot().getIndex();
+    List<Collection<TimeRange>> answers = BATCH_QUERY.query(index, meetingRequests);
+
+    // Stream the times back as JSON, one array per request.
+    response.setContentType("application/json");
+    JsonWriter writer = new JsonWriter(response.getWriter());
+    writer.beginArray();
+    for (Collection<TimeRange> answer : answers) {
+      MeetingJson.writeTimeRanges(writer, answer);
+    }
+    writer.endArray();
+    writer.flush();
+  }
+}
@@ -11,26 +11,138 @@
 // WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
 // See the License for the specific language governing permissions and
 // limitations under the License.
-
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.EventStore;
 import com.google.gson.Gson;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Returns every known event as JSON. The JSON only changes when the {@code EventStore} does, so it
+ * is encoded once per store version and the same bytes are sent to every client.
+ */
 @WebServlet("/get-events")
 public class GetEventsServlet extends HttpServlet {
+  /**
+   * The response body for one version of the store, both as is and gzipped.
+   */
+  private static final class EncodedEvents {
+    private final long version;
+    private final byte[] json;
+    private final byte[] gzippedJson;
+    private final String etag;
+    private final String gzippedEtag;
+
+    private EncodedEvents(long version, byte[] json) throws IOException {
+      this.version = version;
+      this.json = json;
+      this.gzippedJson = gzip(json);
+      // Strong ETags must differ between encodings because the bytes differ.
+      String hash = sha256(json);
+      this.etag = "\"" + hash + "\"";
+      this.gzippedEtag = "\"" + hash + "-gzip\"";
+    }
+  }
+
+  private final EventStore store = EventStore.getDefault();
+
+  // Replaced whenever a request sees a newer store version. Two requests may both rebuild it, which
+  // is harmless because they produce the same bytes.
+  private volatile EncodedEvents encoded;
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
+    EventStore.Snapshot snapshot = store.snapshot();
+    EncodedEvents current = encoded;
+    if (current == null || current.version != snapshot.getVersion()) {
+      Gson gson = new Gson();
+      byte[] json = gson.toJson(snapshot.getEvents()).getBytes(StandardCharsets.UTF_8);
+      current = new EncodedEvents(snapshot.getVersion(), json);
+      encoded = current;
+    }
+
+    boolean gzip = acceptsGzip(request.getHeader("Accept-Encoding"));
+    String etag = gzip ? current.gzippedEtag : current.etag;
+    response.setHeader("ETag", etag);
+    response.setHeader("Vary", "Accept-Encoding");
+
+    // The client already has these bytes, so there is nothing to send.
+    if (matchesEtag(request.getHeader("If-None-Match"), etag)) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
 
     // Send the JSON back as the response
+    byte[] body = gzip ? current.gzippedJson : current.json;
+    if (gzip) {
+      response.setHeader("Content-Encoding", "gzip");
+    }
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    response.setCharacterEncoding("UTF-8");
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        // "gzip;q=0" means the client refuses gzip.
+        return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+
+  private static boolean matchesEtag(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String trimmed = candidate.trim();
+      // If-None-Match uses weak comparison, so a weak validator matches its strong form.
+      if (trimmed.startsWith("W/")) {
+        trimmed = trimmed.substring(2);
+      }
+      if (trimmed.equals("*") || trimmed.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static byte[] gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.toByteArray();
+  }
+
+  private static String sha256(byte[] bytes) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+      StringBuilder hex = new StringBuilder();
+      // Half of the digest is plenty to tell versions of the calendar apart.
+      for (int i = 0; i < digest.length / 2; i++) {
+        hex.append(String.format("%02x", digest[i]));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
   }
 }
@@ -14,14 +14,17 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.EventStore;
 import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingJson;
+import com.google.sps.MeetingQueryCache;
 import com.google.sps.MeetingRequest;
 import com.google.sps.TimeRange;
-import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -29,23 +32,30 @@ import javax.servlet.http.HttpServletResponse;
 
 @WebServlet("/query")
 public class QueryServlet extends HttpServlet {
+  // The UI sends the same request again and again while a meeting is being edited. Its counters
+  // are served by {@code QueryStatsServlet}.
+  static final MeetingQueryCache CACHE =
+      new MeetingQueryCache(new FindMeetingQuery(), 1024, 5, TimeUnit.MINUTES);
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-
-    // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
-
-    // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
+    // Read the MeetingRequest straight off the request body, without building a JSON tree.
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = MeetingJson.readMeetingRequest(new JsonReader(request.getReader()));
+    } catch (IOException | IllegalStateException | NumberFormatException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a meeting request.");
+      return;
+    }
 
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+    // Find the possible meeting times. The store keeps its index up to date, so no event has to
+    // be rescanned here, and the cache skips even that for requests it has answered before.
+    Collection<TimeRange> answer = CACHE.query(EventStore.getDefault().snapshot(), meetingRequest);
 
-    // Send the JSON back as the response
+    // Stream the times back as JSON.
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    JsonWriter writer = new JsonWriter(response.getWriter());
+    MeetingJson.writeTimeRanges(writer, answer);
+    writer.flush();
   }
 }
@@ -0,0 +1,46 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.MeetingQueryCache;
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Returns how well the cache behind {@code /query} is doing, as
+ * {@code {"hits": ..., "misses": ..., "size": ...}}. The counters cover every {@code /query} this
+ * server has answered since it started.
+ */
+@WebServlet("/query-stats")
+public class QueryStatsServlet extends HttpServlet {
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    MeetingQueryCache cache = QueryServlet.CACHE;
+    // The counters change with every query, so they must not be cached on the way.
+    response.setHeader("Cache-Control", "no-store");
+    response.setContentType("application/json");
+    JsonWriter writer = new JsonWriter(response.getWriter());
+    writer.beginObject();
+    writer.name("hits").value(cache.getHits());
+    writer.name("misses").value(cache.getMisses());
+    writer.name("size").value(cache.size());
+    writer.endObject();
+    writer.flush();
+  }
+}
@@ -0,0 +1,119 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeCalendarIndexTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  @Test
+  public void unknownAttendeeIsNeverBusy() {
+    AttendeeCalendarIndex index = AttendeeCalendarIndex.of(Collections.emptyList());
+
+    List<TimeRange> actual = index.getBusyTimes(PERSON_A);
+
+    Assert.assertEquals(Collections.emptyList(), actual);
+  }
+
+  @Test
+  public void busyTimesAreSortedAndMerged() {
+    // Events  : |--A--|
+    //              |--A--|   |--A--|
+    // Busy    : |--------|   |-----|
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A)));
+    AttendeeCalendarIndex index = AttendeeCalendarIndex.of(events);
+
+    List<TimeRange> actual = index.getBusyTimes(PERSON_A);
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void queryMatchesEventScan() {
+    // The indexed query must give the same answer as scanning every event.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A, PERSON_C)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_0930AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_C)));
+    AttendeeCalendarIndex index = AttendeeCalendarIndex.of(events);
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+
+    FindMeetingQuery query = new FindMeetingQuery();
+    Collection<TimeRange> actual = query.query(index, request);
+    Collection<TimeRange> expected = query.query(events, request);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void sparseIdsAreLookedUpAndUpdated() {
+    // Two IDs far apart, so the index keeps them in a sorted array rather than by ID.
+    int low = 3;
+    int high = 1_000_000;
+    AttendeeCalendarIndex index = new AttendeeCalendarIndex.Builder()
+        .add(high, TIME_0900AM, TIME_1000AM)
+        .add(low, TIME_0800AM, TIME_0830AM)
+        .build();
+
+    Assert.assertEquals(2, index.size());
+    Assert.assertEquals(TimeRangeSet.of(TIME_0800AM, TIME_0830AM), index.getBusySet(low));
+    Assert.assertEquals(TimeRangeSet.EMPTY, index.getBusySet(low + 1));
+    Assert.assertEquals(
+        TimeRangeSet.of(TIME_0800AM, TIME_0830AM).union(TimeRangeSet.of(TIME_0900AM, TIME_1000AM)),
+        TimeRangeSet.WHOLE_DAY.subtract(
+            AvailabilityStrategy.BITSET.findFree(index, new int[] {low, high}, 1)));
+
+    AttendeeCalendarIndex updated = index.withBusySets(Collections.singletonMap(
+        low, TimeRangeSet.EMPTY));
+    Assert.assertEquals(1, updated.size());
+    Assert.assertEquals(TimeRangeSet.EMPTY, updated.getBusySet(low));
+    Assert.assertEquals(TimeRangeSet.of(TIME_0900AM, TIME_1000AM), updated.getBusySet(high));
+  }
+}
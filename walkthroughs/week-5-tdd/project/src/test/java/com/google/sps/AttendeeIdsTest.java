@@ -0,0 +1,86 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeIdsTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void internIsStable() {
+    int id = AttendeeIds.intern(PERSON_A);
+
+    Assert.assertEquals(id, AttendeeIds.intern(new String(PERSON_A)));
+    Assert.assertEquals(id, AttendeeIds.lookup(PERSON_A));
+    Assert.assertEquals(PERSON_A, AttendeeIds.name(id));
+  }
+
+  @Test
+  public void lookupOfUnknownName() {
+    Assert.assertEquals(-1, AttendeeIds.lookup("Nobody has this name"));
+  }
+
+  @Test
+  public void internAllIsSortedAndDistinct() {
+    int[] actual = AttendeeIds.internAll(Arrays.asList(PERSON_C, PERSON_A, PERSON_C, PERSON_B));
+
+    Assert.assertEquals(3, actual.length);
+    Assert.assertTrue(actual[0] < actual[1] && actual[1] < actual[2]);
+  }
+
+  @Test
+  public void lookupAllSkipsUnknownNamesWithoutInterningThem() {
+    int a = AttendeeIds.intern(PERSON_A);
+    int size = AttendeeIds.size();
+
+    int[] actual = AttendeeIds.lookupAll(Arrays.asList("Unknown 1", PERSON_A, "Unknown 2"));
+
+    Assert.assertArrayEquals(new int[] {a}, actual);
+    Assert.assertEquals(size, AttendeeIds.size());
+    Assert.assertEquals(-1, AttendeeIds.lookup("Unknown 1"));
+  }
+
+  @Test
+  public void intersects() {
+    int[] ab = AttendeeIds.internAll(Arrays.asList(PERSON_A, PERSON_B));
+    int[] bc = AttendeeIds.internAll(Arrays.asList(PERSON_B, PERSON_C));
+    int[] c = AttendeeIds.internAll(Arrays.asList(PERSON_C));
+
+    Assert.assertTrue(AttendeeIds.intersects(ab, bc));
+    Assert.assertFalse(AttendeeIds.intersects(ab, c));
+    Assert.assertFalse(AttendeeIds.intersects(ab, new int[0]));
+  }
+
+  @Test
+  public void eventAttendeesKeepSetSemantics() {
+    Event event =
+        new Event("Event", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_B, PERSON_A, PERSON_B));
+    Event same = new Event("Event", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A, PERSON_B));
+
+    Assert.assertEquals(2, event.getAttendees().size());
+    Assert.assertTrue(event.getAttendees().contains(PERSON_A));
+    Assert.assertFalse(event.getAttendees().contains(PERSON_C));
+    Assert.assertEquals(same, event);
+    Assert.assertEquals(same.getAttendees(), event.getAttendees());
+  }
+}
@@ -0,0 +1,105 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeZonesTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  // 2020-01-01, counted in days since the epoch.
+  private static final long DAY_1 = 18262;
+  private static final long DAY_2 = DAY_1 + 1;
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_0200PM = TimeRange.getTimeInMinutes(14, 0);
+  private static final int TIME_0300PM = TimeRange.getTimeInMinutes(15, 0);
+  private static final int TIME_0500PM = TimeRange.getTimeInMinutes(17, 0);
+
+  private static final TimeRange WORKING_HOURS =
+      TimeRange.fromStartEnd(TIME_0900AM, TIME_0500PM, false);
+
+  // In January, New York is five hours behind London, which is on UTC.
+  private static final AttendeeZones ZONES = new AttendeeZones.Builder()
+      .set(PERSON_A, ZoneId.of("America/New_York"))
+      .set(PERSON_B, ZoneId.of("Europe/London"))
+      .build();
+
+  @Test
+  public void toUtc() {
+    EpochMinuteRange local =
+        EpochMinuteRange.onDay(DAY_1, TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false));
+
+    EpochMinuteRange actual = ZONES.toUtc(AttendeeIds.intern(PERSON_A), local);
+    EpochMinuteRange expected =
+        EpochMinuteRange.onDay(DAY_1, TimeRange.fromStartEnd(TIME_0200PM, TIME_0300PM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void attendeeWithoutZoneIsInUtc() {
+    Assert.assertSame(ZoneOffsetTable.UTC, ZONES.getZone(PERSON_C));
+  }
+
+  @Test
+  public void workingOverlapAcrossZones() {
+    List<EpochMinuteRange> actual = ZONES.workingOverlap(
+        Arrays.asList(PERSON_A, PERSON_B), new CalendarHorizon(DAY_1, 2, WORKING_HOURS));
+    TimeRange overlap = TimeRange.fromStartEnd(TIME_0200PM, TIME_0500PM, false);
+    List<EpochMinuteRange> expected = Arrays.asList(
+        EpochMinuteRange.onDay(DAY_1, overlap), EpochMinuteRange.onDay(DAY_2, overlap));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void workingOverlapWithUnknownAttendee() {
+    // Someone the dictionary has never seen is in UTC, and asking about them doesn't add them.
+    String stranger = "Stranger in AttendeeZonesTest";
+    List<EpochMinuteRange> actual = ZONES.workingOverlap(
+        Arrays.asList(PERSON_A, stranger), new CalendarHorizon(DAY_1, 1, WORKING_HOURS));
+    List<EpochMinuteRange> expected = Arrays.asList(EpochMinuteRange.onDay(
+        DAY_1, TimeRange.fromStartEnd(TIME_0200PM, TIME_0500PM, false)));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(-1, AttendeeIds.lookup(stranger));
+  }
+
+  @Test
+  public void workingHoursCanCrossUtcMidnight() {
+    // 9 AM to 5 PM in Tokyo is midnight to 8 AM in UTC.
+    AttendeeZones zones =
+        new AttendeeZones.Builder().set(PERSON_C, ZoneId.of("Asia/Tokyo")).build();
+
+    List<EpochMinuteRange> actual = zones.workingOverlap(
+        Arrays.asList(PERSON_C), new CalendarHorizon(DAY_1, 1, WORKING_HOURS));
+    List<EpochMinuteRange> expected = Arrays.asList(EpochMinuteRange.onDay(
+        DAY_1, TimeRange.fromStartEnd(0, TimeRange.getTimeInMinutes(8, 0), false)));
+
+    Assert.assertEquals(expected, actual);
+  }
+}
@@ -0,0 +1,97 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AvailabilityStrategyTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Test
+  public void bitsetHandlesDayBoundaries() {
+    // Busy for the first and last minute of the day, and across a 64-minute word boundary.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(0, 1, false), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(60, 130, false), Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartEnd(TimeRange.END_OF_DAY, TimeRange.END_OF_DAY,
+            true), Arrays.asList(PERSON_A)));
+    AttendeeCalendarIndex index = AttendeeCalendarIndex.of(events);
+
+    TimeRangeSet actual =
+        AvailabilityStrategy.BITSET.findFree(index, ids(PERSON_A), DURATION_30_MINUTES);
+    TimeRangeSet expected =
+        new TimeRangeSet.Builder().add(1, 60).add(130, TimeRange.END_OF_DAY).build();
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void strategiesAgreeOnRandomCalendars() {
+    Random random = new Random(42);
+    for (int round = 0; round < 50; round++) {
+      List<Event> events = new ArrayList<>();
+      int count = random.nextInt(200);
+      for (int i = 0; i < count; i++) {
+        int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+        int duration = 1 + random.nextInt(90);
+        String attendee = random.nextBoolean() ? PERSON_A : PERSON_B;
+        events.add(new Event("Event " + i,
+            TimeRange.fromStartDuration(start, duration), Arrays.asList(attendee)));
+      }
+      AttendeeCalendarIndex index = AttendeeCalendarIndex.of(events);
+      MeetingRequest request =
+          new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 1 + random.nextInt(60));
+
+      Collection<TimeRange> expected = new FindMeetingQuery().query(events, request);
+      for (AvailabilityStrategy strategy : AvailabilityStrategy.values()) {
+        Collection<TimeRange> actual = new FindMeetingQuery(strategy).query(index, request);
+        Assert.assertEquals(strategy.name(), expected, actual);
+      }
+    }
+  }
+
+  @Test
+  public void selectPrefersBitsetForDenseCalendars() {
+    List<Event> events = new ArrayList<>();
+    for (int start = 0; start < TimeRange.WHOLE_DAY.duration(); start += 10) {
+      events.add(new Event("Event " + start, TimeRange.fromStartDuration(start, 5),
+          Arrays.asList(PERSON_A)));
+    }
+    AttendeeCalendarIndex dense = AttendeeCalendarIndex.of(events);
+    AttendeeCalendarIndex sparse = AttendeeCalendarIndex.of(events.subList(0, 2));
+
+    Assert.assertEquals(AvailabilityStrategy.BITSET,
+        AvailabilityStrategy.select(dense, ids(PERSON_A)));
+    Assert.assertEquals(AvailabilityStrategy.SWEEP,
+        AvailabilityStrategy.select(sparse, ids(PERSON_A)));
+  }
+
+  private static int[] ids(String... attendees) {
+    return AttendeeIds.internAll(Arrays.asList(attendees));
+  }
+}
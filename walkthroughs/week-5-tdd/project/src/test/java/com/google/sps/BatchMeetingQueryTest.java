@@ -0,0 +1,59 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BatchMeetingQueryTest {
+  private static final AttendeeCalendarIndex INDEX =
+      AttendeeCalendarIndex.of(Arrays.asList(Events.events));
+
+  private static final String[] PEOPLE = {"Amelia", "Ava", "Emma", "Isabella", "James", "Liam",
+      "Logan", "Noah", "Oliver", "Olivia"};
+
+  @Test
+  public void answersKeepRequestOrder() {
+    // Enough requests to be split across threads.
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      String first = PEOPLE[i % PEOPLE.length];
+      String second = PEOPLE[(i / PEOPLE.length) % PEOPLE.length];
+      requests.add(new MeetingRequest(Arrays.asList(first, second), 15 + (i % 4) * 15));
+    }
+
+    List<Collection<TimeRange>> actual = new BatchMeetingQuery().query(INDEX, requests);
+
+    FindMeetingQuery query = new FindMeetingQuery();
+    Assert.assertEquals(requests.size(), actual.size());
+    for (int i = 0; i < requests.size(); i++) {
+      Assert.assertEquals(query.query(INDEX, requests.get(i)), actual.get(i));
+    }
+  }
+
+  @Test
+  public void emptyBatch() {
+    List<Collection<TimeRange>> actual = new BatchMeetingQuery().query(INDEX, new ArrayList<>());
+
+    Assert.assertTrue(actual.isEmpty());
+  }
+}
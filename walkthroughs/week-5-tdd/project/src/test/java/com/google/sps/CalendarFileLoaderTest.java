@@ -0,0 +1,124 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarFileLoaderTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  // 2020-01-01, counted in days since the epoch.
+  private static final long DAY_1 = 18262;
+  private static final long DAY_2 = DAY_1 + 1;
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1100PM = TimeRange.getTimeInMinutes(23, 0);
+  private static final int TIME_0100AM = TimeRange.getTimeInMinutes(1, 0);
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void loadsCsv() throws IOException {
+    Path file = write("calendar.csv",
+        "start,end,attendees,title\r\n"
+            + "2020-01-01T09:00,2020-01-01T09:30,Person A; Person B,Standup\r\n"
+            + "2020-01-01T23:00:00Z,2020-01-02T01:00:00Z,Person B\r\n");
+    DayPartitionedIndex.Builder builder = new DayPartitionedIndex.Builder();
+
+    long events = new CalendarFileLoader(builder).load(file);
+    DayPartitionedIndex index = builder.build();
+
+    Assert.assertEquals(2, events);
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_0930AM, false)),
+        index.getDay(DAY_1).getBusyTimes(PERSON_A));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_0930AM, false),
+            TimeRange.fromStartEnd(TIME_1100PM, TimeRange.END_OF_DAY, true)),
+        index.getDay(DAY_1).getBusyTimes(PERSON_B));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0100AM, false)),
+        index.getDay(DAY_2).getBusyTimes(PERSON_B));
+  }
+
+  @Test
+  public void loadsIcsWithFoldedLines() throws IOException {
+    Path file = write("calendar.ics",
+        "BEGIN:VCALENDAR\r\n"
+            + "BEGIN:VEVENT\r\n"
+            + "SUMMARY:Standup\r\n"
+            + "DTSTART:20200101T090000Z\r\n"
+            + "DTEND;TZID=UTC:20200101T093000\r\n"
+            + "ATTENDEE;CN=\"A: the first\";ROLE=REQ-PARTICIPANT:mailto:Person\r\n"
+            + "  A\r\n"
+            + "END:VEVENT\r\n"
+            + "BEGIN:VEVENT\r\n"
+            + "DTSTART;VALUE=DATE:20200102\r\n"
+            + "DTEND;VALUE=DATE:20200103\r\n"
+            + "ATTENDEE:MAILTO:Person B\r\n"
+            + "END:VEVENT\r\n"
+            + "END:VCALENDAR\r\n");
+    DayPartitionedIndex.Builder builder = new DayPartitionedIndex.Builder();
+
+    long events = new CalendarFileLoader(builder).load(file);
+    DayPartitionedIndex index = builder.build();
+
+    Assert.assertEquals(2, events);
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_0930AM, false)),
+        index.getDay(DAY_1).getBusyTimes(PERSON_A));
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY),
+        index.getDay(DAY_2).getBusyTimes(PERSON_B));
+    Assert.assertEquals(Collections.emptyList(), index.getDay(DAY_1).getBusyTimes(PERSON_B));
+  }
+
+  @Test(expected = IOException.class)
+  public void malformedTime() throws IOException {
+    Path file = write("calendar.csv", "2020-01-01T09:00,tomorrow,Person A\n");
+
+    new CalendarFileLoader(new DayPartitionedIndex.Builder()).load(file);
+  }
+
+  @Test
+  public void epochDayMatchesLocalDate() {
+    for (LocalDate date : Arrays.asList(LocalDate.of(1970, 1, 1), LocalDate.of(2000, 2, 29),
+        LocalDate.of(2020, 3, 1), LocalDate.of(2100, 12, 31), LocalDate.of(1969, 12, 31))) {
+      Assert.assertEquals(date.toEpochDay(), CalendarFileLoader.epochDay(
+          date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+    }
+  }
+
+  private Path write(String name, String contents) throws IOException {
+    Path file = folder.newFile(name).toPath();
+    Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+}
@@ -0,0 +1,110 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventStoreTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  private static final Event EVENT_1 = new Event("Event 1",
+      TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A));
+  private static final Event EVENT_2 = new Event("Event 2",
+      TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+      Arrays.asList(PERSON_A, PERSON_B));
+
+  @Test
+  public void addPublishesNewSnapshot() {
+    EventStore store = new EventStore(Arrays.asList(EVENT_1));
+    EventStore.Snapshot before = store.snapshot();
+
+    EventStore.Snapshot after = store.add(EVENT_2);
+
+    Assert.assertSame(after, store.snapshot());
+    Assert.assertEquals(before.getVersion() + 1, after.getVersion());
+    Assert.assertEquals(Arrays.asList(EVENT_1, EVENT_2), after.getEvents());
+    Assert.assertEquals(
+        Arrays.asList(EVENT_2.getWhen()), after.getIndex().getBusyTimes(PERSON_B));
+
+    // Old snapshots never change.
+    Assert.assertEquals(Arrays.asList(EVENT_1), before.getEvents());
+    Assert.assertEquals(Collections.emptyList(), before.getIndex().getBusyTimes(PERSON_B));
+  }
+
+  @Test
+  public void removeRebuildsAttendeesOfEvent() {
+    EventStore store = new EventStore(Arrays.asList(EVENT_1, EVENT_2));
+
+    EventStore.Snapshot after = store.remove(EVENT_2);
+
+    Assert.assertEquals(Arrays.asList(EVENT_1), after.getEvents());
+    Assert.assertEquals(Arrays.asList(EVENT_1.getWhen()), after.getIndex().getBusyTimes(PERSON_A));
+    Assert.assertEquals(Collections.emptyList(), after.getIndex().getBusyTimes(PERSON_B));
+  }
+
+  @Test
+  public void removeUnknownEventKeepsSnapshot() {
+    EventStore store = new EventStore(Arrays.asList(EVENT_1));
+    EventStore.Snapshot before = store.snapshot();
+
+    Assert.assertSame(before, store.remove(EVENT_2));
+  }
+
+  @Test
+  public void attendeeVersionsOnlyMoveForChangedAttendees() {
+    EventStore store = new EventStore(Arrays.asList(EVENT_2));
+    int personA = AttendeeIds.intern(PERSON_A);
+    int personB = AttendeeIds.intern(PERSON_B);
+
+    EventStore.Snapshot after = store.add(EVENT_1);
+
+    Assert.assertEquals(after.getVersion(), after.getAttendeeVersion(personA));
+    Assert.assertEquals(0, after.getAttendeeVersion(personB));
+  }
+
+  @Test
+  public void indexMatchesFreshBuild() {
+    EventStore store = new EventStore(Collections.emptyList());
+    List<Event> events = new ArrayList<>();
+    for (Event event : Events.events) {
+      store.add(event);
+      events.add(event);
+    }
+    store.remove(Events.events[0]);
+    events.remove(Events.events[0]);
+
+    AttendeeCalendarIndex expected = AttendeeCalendarIndex.of(events);
+    AttendeeCalendarIndex actual = store.snapshot().getIndex();
+    for (Event event : Events.events) {
+      for (String attendee : event.getAttendees()) {
+        Assert.assertEquals(expected.getBusySet(attendee), actual.getBusySet(attendee));
+      }
+    }
+  }
+}
@@ -34,6 +34,8 @@ public final class FindMeetingQueryTest {
   // Some people that we can use in our tests.
   private static final String PERSON_A = "Person A";
   private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+  private static final String PERSON_D = "Person D";
 
   // All dates are the first day of the year 2020.
   private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
@@ -270,5 +272,286 @@ public final class FindMeetingQueryTest {
 
     Assert.assertEquals(expected, actual);
   }
-}
 
+  @Test
+  public void eventsInAnyOrder() {
+    // Events are not guaranteed to arrive sorted. The later event is listed first here.
+    //
+    // Events  :       |--A--|     |--A--|
+    // Day     : |-----------------------------|
+    // Options : |--1--|     |--2--|     |--3--|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeeIsConsidered() {
+    // C is optional and busy all day, so the answer should be the same as without C. D is optional
+    // and busy from 8:30 to 9:00, which rules out the middle option.
+    //
+    // Events  :       |--A--|     |--B--|
+    //                       |-D-|
+    // Day     : |-----------------------------|
+    // Options : |--1--|           |--3--|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_C)),
+        new Event("Event 4", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_D)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_C);
+    request.addOptionalAttendee(PERSON_D);
+
+    Collection<TimeRange> actual = query.queryMaximizingOptional(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void maximizesOptionalAttendees() {
+    // No slot suits every optional attendee, so only the start times that suit the most of them
+    // are returned. Only a meeting from 9:00 to 9:30 suits both B and C.
+    //
+    // Events  : |--B--|     |--B--|
+    //                     |-C-|
+    // Day     : |-------------------|
+    // Options :       |-|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0930AM, TIME_1100AM, false),
+            Arrays.asList(PERSON_C)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<TimeRange> actual = query.queryMaximizingOptional(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void noSlotsWhenNoOptionalAttendeeCanMakeIt() {
+    // There are only optional attendees and each of them is busy all day.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(NO_ATTENDEES, DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_A);
+    request.addOptionalAttendee(PERSON_B);
+
+    Collection<TimeRange> actual = query.queryMaximizingOptional(events, request);
+    Collection<TimeRange> expected = Arrays.asList();
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeeWithoutEventsCanMakeAnySlot() {
+    // Both known optional attendees are busy all day, but the third one has never been seen and
+    // so is free.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(NO_ATTENDEES, DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_A);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee("Someone with no events in FindMeetingQueryTest");
+
+    Collection<TimeRange> actual = query.queryMaximizingOptional(events, request);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.WHOLE_DAY);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void requiredAttendeeWithoutEventsIsFree() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(
+        Arrays.asList(PERSON_A, "Someone with no events in FindMeetingQueryTest"),
+        DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0830AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void queryAfterAddSplitsSlot() {
+    Event existing = new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_A));
+    Event added = new Event("Event 2",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_A, PERSON_C));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    Collection<TimeRange> previous = query.query(Arrays.asList(existing), request);
+
+    Collection<TimeRange> actual = query.queryAfterAdd(previous, request, added);
+    Collection<TimeRange> expected = query.query(Arrays.asList(existing, added), request);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void queryAfterAddDropsShortPieces() {
+    // The new event leaves less than the requested duration before 9:00.
+    Event added = new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_0830AM, TimeRange.END_OF_DAY, true),
+        Arrays.asList(PERSON_A));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    Collection<TimeRange> previous =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0930AM, false));
+
+    Collection<TimeRange> actual = query.queryAfterAdd(previous, request, added);
+
+    Assert.assertEquals(Arrays.asList(), actual);
+  }
+
+  @Test
+  public void queryAfterAddIgnoresOtherAttendees() {
+    Event added = new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_B));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual =
+        query.queryAfterAdd(Arrays.asList(TimeRange.WHOLE_DAY), request, added);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), actual);
+  }
+
+  @Test
+  public void queryAfterRemoveMergesNeighbours() {
+    // Person A stays busy from 9:00 to 9:30 through another event, so only part of the removed
+    // event is freed.
+    Event kept = new Event("Event 1", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_A));
+    Event removed = new Event("Event 2", TimeRange.fromStartEnd(TIME_0800AM, TIME_0930AM, false),
+        Arrays.asList(PERSON_A, PERSON_B));
+    Event later = new Event("Event 3",
+        TimeRange.fromStartDuration(TIME_1100AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_A));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    Collection<TimeRange> previous = query.query(Arrays.asList(kept, removed, later), request);
+
+    List<Event> remaining = Arrays.asList(kept, later);
+    Collection<TimeRange> actual = query.queryAfterRemove(
+        previous, AttendeeCalendarIndex.of(remaining), request, removed);
+    Collection<TimeRange> expected = query.query(remaining, request);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void queryAfterRemoveOfLastEvent() {
+    Event removed = new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_A));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    Collection<TimeRange> previous = query.query(Arrays.asList(removed), request);
+
+    Collection<TimeRange> actual = query.queryAfterRemove(
+        previous, AttendeeCalendarIndex.of(NO_EVENTS), request, removed);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), actual);
+  }
+
+  @Test
+  public void queryTopKPrefersEarliest() {
+    SlotPreferences earliest = new SlotPreferences.Builder()
+        .conflictWeight(0)
+        .lunch(TimeRange.WHOLE_DAY, 0)
+        .build();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    List<TimeRange> actual =
+        query.queryTopK(AttendeeCalendarIndex.of(NO_EVENTS), request, earliest, 3);
+    List<TimeRange> expected = Arrays.asList(TimeRange.fromStartDuration(0, DURATION_30_MINUTES),
+        TimeRange.fromStartDuration(15, DURATION_30_MINUTES),
+        TimeRange.fromStartDuration(30, DURATION_30_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void queryTopKWeighsConflictsAndLunch() {
+    // Person A is only free from 11 AM to 2 PM and optional Person B is busy until 11:30 AM. With
+    // the default preferences, missing Person B costs an hour and each minute of lunch a minute, so
+    // 11 AM ties with 11:45 AM and wins as the earlier one.
+    int time0200PM = TimeRange.getTimeInMinutes(14, 0);
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1100AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(time0200PM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_1100AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    List<TimeRange> actual = query.queryTopK(
+        AttendeeCalendarIndex.of(events), request, SlotPreferences.DEFAULT, 3);
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartDuration(TIME_1100AM + 30, DURATION_30_MINUTES),
+            TimeRange.fromStartDuration(TIME_1100AM, DURATION_30_MINUTES),
+            TimeRange.fromStartDuration(TIME_1100AM + 45, DURATION_30_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void queryTopKWithFewerCandidates() {
+    // Only 8:30 and 8:45 fit a 30 minute meeting.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM + 15, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    List<TimeRange> actual = query.queryTopK(
+        AttendeeCalendarIndex.of(events), request, SlotPreferences.DEFAULT, 3);
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+        TimeRange.fromStartDuration(TIME_0830AM + 15, DURATION_30_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+}
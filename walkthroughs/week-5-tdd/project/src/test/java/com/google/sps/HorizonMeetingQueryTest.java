@@ -0,0 +1,136 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class HorizonMeetingQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  // 2020-01-01, counted in days since the epoch.
+  private static final long DAY_1 = 18262;
+  private static final long DAY_2 = DAY_1 + 1;
+  private static final long DAY_3 = DAY_1 + 2;
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_0500PM = TimeRange.getTimeInMinutes(17, 0);
+  private static final int TIME_1100PM = TimeRange.getTimeInMinutes(23, 0);
+
+  private static final int DURATION_1_HOUR = 60;
+  private static final int DURATION_2_HOUR = 120;
+
+  private static final TimeRange WORKING_HOURS =
+      TimeRange.fromStartEnd(TIME_0900AM, TIME_0500PM, false);
+
+  private HorizonMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new HorizonMeetingQuery();
+  }
+
+  @Test
+  public void workingHoursOfEveryDay() {
+    DayPartitionedIndex index = new DayPartitionedIndex.Builder()
+        .add(DAY_2, new Event("Event 1",
+            TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), Arrays.asList(PERSON_A)))
+        .build();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    List<EpochMinuteRange> actual =
+        query.query(index, request, new CalendarHorizon(DAY_1, 3, WORKING_HOURS));
+    List<EpochMinuteRange> expected = Arrays.asList(
+        EpochMinuteRange.onDay(DAY_1, WORKING_HOURS),
+        EpochMinuteRange.onDay(DAY_2, TimeRange.fromStartEnd(TIME_1000AM, TIME_0500PM, false)),
+        EpochMinuteRange.onDay(DAY_3, WORKING_HOURS));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void busyRangeAcrossMidnight() {
+    // B is busy from 11 PM on the first day until 10 AM on the second day.
+    long start = at(DAY_1, TIME_1100PM);
+    long end = at(DAY_2, TIME_1000AM);
+    DayPartitionedIndex index = new DayPartitionedIndex.Builder()
+        .add(EpochMinuteRange.fromStartEnd(start, end), Arrays.asList(PERSON_B))
+        .build();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_2_HOUR);
+
+    List<EpochMinuteRange> actual = query.query(index, request, new CalendarHorizon(DAY_1, 2));
+    List<EpochMinuteRange> expected = Arrays.asList(
+        EpochMinuteRange.fromStartEnd(at(DAY_1, 0), start),
+        EpochMinuteRange.fromStartEnd(end, at(DAY_3, 0)));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void meetingCanRunPastMidnight() {
+    // A is only free from 11 PM on the first day until 1 AM on the second, which is long enough
+    // for a two hour meeting when the horizon does not restrict the hours.
+    long gapStart = at(DAY_1, TIME_1100PM);
+    DayPartitionedIndex index = new DayPartitionedIndex.Builder()
+        .add(EpochMinuteRange.fromStartEnd(at(DAY_1, 0), gapStart),
+            Arrays.asList(PERSON_A))
+        .add(EpochMinuteRange.fromStartEnd(gapStart + DURATION_2_HOUR,
+            at(DAY_3, 0)), Arrays.asList(PERSON_A))
+        .build();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_2_HOUR);
+
+    List<EpochMinuteRange> actual = query.query(index, request, new CalendarHorizon(DAY_1, 2));
+    List<EpochMinuteRange> expected =
+        Arrays.asList(EpochMinuteRange.fromStartDuration(gapStart, DURATION_2_HOUR));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void recurringEventIsExpandedOverHorizon() {
+    // A has a daily meeting from 9 to 10 AM, starting long before the horizon and cancelled on the
+    // second day.
+    RecurringEvent standup = new RecurringEvent(
+        new Event("Standup", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)),
+        RecurringEvent.Frequency.DAILY, DAY_1 - 1000, RecurringEvent.FOREVER,
+        Arrays.asList(DAY_2));
+    DayPartitionedIndex index = new DayPartitionedIndex.Builder().add(standup).build();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    List<EpochMinuteRange> actual =
+        query.query(index, request, new CalendarHorizon(DAY_1, 3, WORKING_HOURS));
+    TimeRange afterStandup = TimeRange.fromStartEnd(TIME_1000AM, TIME_0500PM, false);
+    List<EpochMinuteRange> expected = Arrays.asList(
+        EpochMinuteRange.onDay(DAY_1, afterStandup),
+        EpochMinuteRange.onDay(DAY_2, WORKING_HOURS),
+        EpochMinuteRange.onDay(DAY_3, afterStandup));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  /** Returns the minutes since the epoch of {@code minuteOfDay} on {@code epochDay}. */
+  private static long at(long epochDay, int minuteOfDay) {
+    return epochDay * EpochMinuteRange.MINUTES_PER_DAY + minuteOfDay;
+  }
+}
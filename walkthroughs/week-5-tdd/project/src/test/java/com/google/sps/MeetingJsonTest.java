@@ -0,0 +1,122 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MeetingJsonTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void readsRequest() throws IOException {
+    MeetingRequest request = MeetingJson.readMeetingRequest(reader(
+        "{\"attendees\":[\"Person A\",\"Person B\"],\"optional_attendees\":[\"Person C\"],"
+            + "\"duration\":30}"));
+
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList(PERSON_A, PERSON_B)), new HashSet<>(request.getAttendees()));
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList(PERSON_C)), new HashSet<>(request.getOptionalAttendees()));
+    Assert.assertEquals(30, request.getDuration());
+  }
+
+  @Test
+  public void readingDoesNotInternNames() throws IOException {
+    AttendeeIds.intern(PERSON_A);
+    MeetingRequest request = MeetingJson.readMeetingRequest(reader(
+        "{\"attendees\":[\"Person A\",\"Stranger in MeetingJsonTest\"],\"duration\":30}"));
+
+    Assert.assertEquals(2, request.getAttendees().size());
+    Assert.assertEquals(-1, AttendeeIds.lookup("Stranger in MeetingJsonTest"));
+  }
+
+  @Test
+  public void readsDurationSentAsString() throws IOException {
+    // script.js sends the value of the duration input as is.
+    MeetingRequest request =
+        MeetingJson.readMeetingRequest(reader("{\"duration\":\"45\",\"attendees\":[]}"));
+
+    Assert.assertEquals(45, request.getDuration());
+  }
+
+  @Test
+  public void missingNullAndUnknownFields() throws IOException {
+    MeetingRequest request = MeetingJson.readMeetingRequest(
+        reader("{\"attendees\":null,\"room\":{\"name\":\"A\"},\"duration\":15}"));
+
+    Assert.assertTrue(request.getAttendees().isEmpty());
+    Assert.assertTrue(request.getOptionalAttendees().isEmpty());
+    Assert.assertEquals(15, request.getDuration());
+  }
+
+  @Test
+  public void readsArrayOfRequests() throws IOException {
+    List<MeetingRequest> requests = MeetingJson.readMeetingRequests(
+        reader("[{\"attendees\":[\"Person A\"],\"duration\":30},{\"duration\":60}]"));
+
+    Assert.assertEquals(2, requests.size());
+    Assert.assertEquals(Arrays.asList(PERSON_A), Arrays.asList(
+        requests.get(0).getAttendees().toArray()));
+    Assert.assertEquals(60, requests.get(1).getDuration());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void rejectsWrongShape() throws IOException {
+    MeetingJson.readMeetingRequest(reader("[1, 2, 3]"));
+  }
+
+  @Test
+  public void writesSameJsonAsGson() throws IOException {
+    Collection<TimeRange> ranges = Arrays.asList(
+        TimeRange.fromStartDuration(0, 30), TimeRange.fromStartEnd(600, 1440, false));
+
+    StringWriter out = new StringWriter();
+    MeetingJson.writeTimeRanges(new JsonWriter(out), ranges);
+
+    Assert.assertEquals(new Gson().toJson(ranges), out.toString());
+  }
+
+  @Test
+  public void timeRangeRoundTrip() throws IOException {
+    TimeRange range = TimeRange.fromStartDuration(90, 45);
+
+    StringWriter out = new StringWriter();
+    MeetingJson.writeTimeRange(new JsonWriter(out), range);
+    TimeRange actual = MeetingJson.readTimeRange(reader(out.toString()));
+
+    Assert.assertEquals(range, actual);
+  }
+
+  private static JsonReader reader(String json) {
+    return new JsonReader(new StringReader(json));
+  }
+}
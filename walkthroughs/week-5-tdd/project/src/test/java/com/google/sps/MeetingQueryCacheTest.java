@@ -0,0 +1,129 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MeetingQueryCacheTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final long TTL = 1000;
+
+  private final AtomicLong now = new AtomicLong();
+  private EventStore store;
+  private MeetingQueryCache cache;
+
+  @Before
+  public void setUp() {
+    store = new EventStore(Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A))));
+    cache = new MeetingQueryCache(new FindMeetingQuery(), 2, TTL, now::get);
+  }
+
+  @Test
+  public void repeatedRequestIsHit() {
+    Collection<TimeRange> first = cache.query(store.snapshot(), request(PERSON_A, PERSON_B));
+    // Same people in another order.
+    Collection<TimeRange> second = cache.query(store.snapshot(), request(PERSON_B, PERSON_A));
+
+    Assert.assertSame(first, second);
+    Assert.assertEquals(1, cache.getHits());
+    Assert.assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void changeToAttendeeInvalidates() {
+    Collection<TimeRange> before = cache.query(store.snapshot(), request(PERSON_A));
+
+    store.add(new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_A)));
+    Collection<TimeRange> after = cache.query(store.snapshot(), request(PERSON_A));
+
+    Assert.assertEquals(0, cache.getHits());
+    Assert.assertEquals(2, cache.getMisses());
+    Assert.assertEquals(before.size() + 1, after.size());
+  }
+
+  @Test
+  public void changeToOtherAttendeeKeepsEntry() {
+    cache.query(store.snapshot(), request(PERSON_A));
+
+    store.add(new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_C)));
+    cache.query(store.snapshot(), request(PERSON_A));
+
+    Assert.assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  public void expiredEntryIsMiss() {
+    cache.query(store.snapshot(), request(PERSON_A));
+
+    now.addAndGet(TTL);
+    cache.query(store.snapshot(), request(PERSON_A));
+
+    Assert.assertEquals(0, cache.getHits());
+    Assert.assertEquals(2, cache.getMisses());
+  }
+
+  @Test
+  public void leastRecentlyUsedIsEvicted() {
+    cache.query(store.snapshot(), request(PERSON_A));
+    cache.query(store.snapshot(), request(PERSON_B));
+    cache.query(store.snapshot(), request(PERSON_A));
+    cache.query(store.snapshot(), request(PERSON_C));
+
+    // Person B was used least recently, so it made room for Person C.
+    cache.query(store.snapshot(), request(PERSON_A));
+    cache.query(store.snapshot(), request(PERSON_B));
+
+    Assert.assertEquals(2, cache.size());
+    Assert.assertEquals(2, cache.getHits());
+    Assert.assertEquals(4, cache.getMisses());
+  }
+
+  @Test
+  public void optionalAttendeesAreSeparateKey() {
+    MeetingRequest withOptional = request(PERSON_B);
+    withOptional.addOptionalAttendee(PERSON_A);
+
+    Collection<TimeRange> plain = cache.query(store.snapshot(), withOptional);
+    Collection<TimeRange> maximizing =
+        cache.queryMaximizingOptional(store.snapshot(), withOptional);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), plain);
+    Assert.assertEquals(2, maximizing.size());
+    Assert.assertEquals(0, cache.getHits());
+  }
+
+  private static MeetingRequest request(String... attendees) {
+    return new MeetingRequest(Arrays.asList(attendees), DURATION_30_MINUTES);
+  }
+}
@@ -44,4 +44,19 @@ public final class MeetingRequestTest {
     int expected = 0;
     Assert.assertEquals(expected, actual);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void idsOfNamesLearnedLaterArePickedUp() {
+    String newcomer = "Newcomer in MeetingRequestTest";
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, newcomer), DURATION_1_HOUR);
+    int a = AttendeeIds.intern(PERSON_A);
+
+    // Asking for the IDs must not give the newcomer one.
+    Assert.assertArrayEquals(new int[] {a}, request.getAttendeeIds());
+    Assert.assertEquals(-1, AttendeeIds.lookup(newcomer));
+
+    int id = AttendeeIds.intern(newcomer);
+    Assert.assertArrayEquals(new int[] {a, id}, request.getAttendeeIds());
+  }
+}
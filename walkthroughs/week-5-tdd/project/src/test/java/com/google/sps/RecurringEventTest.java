@@ -0,0 +1,119 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecurringEventTest {
+  private static final String PERSON_A = "Person A";
+
+  // 2020-01-01, a Wednesday, counted in days since the epoch.
+  private static final long WEDNESDAY = 18262;
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int DURATION_30_MINUTES = 30;
+
+  private static final Event STANDUP = new Event("Standup",
+      TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A));
+
+  @Test
+  public void dailyWithException() {
+    RecurringEvent event = new RecurringEvent(STANDUP, RecurringEvent.Frequency.DAILY, WEDNESDAY,
+        WEDNESDAY + 3, Arrays.asList(WEDNESDAY + 1));
+
+    List<EpochMinuteRange> actual = occurrences(event, WEDNESDAY - 10, WEDNESDAY + 10);
+    List<EpochMinuteRange> expected = Arrays.asList(standupOn(WEDNESDAY),
+        standupOn(WEDNESDAY + 2), standupOn(WEDNESDAY + 3));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void weeklyRepeatsOnFirstWeekday() {
+    RecurringEvent event = new RecurringEvent(STANDUP, RecurringEvent.Frequency.WEEKLY, WEDNESDAY,
+        RecurringEvent.FOREVER, Collections.emptyList());
+
+    List<EpochMinuteRange> actual = occurrences(event, WEDNESDAY + 1, WEDNESDAY + 15);
+    List<EpochMinuteRange> expected =
+        Arrays.asList(standupOn(WEDNESDAY + 7), standupOn(WEDNESDAY + 14));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void weekdaysSkipWeekend() {
+    RecurringEvent event = new RecurringEvent(STANDUP, RecurringEvent.Frequency.WEEKDAYS,
+        WEDNESDAY, RecurringEvent.FOREVER, Collections.emptyList());
+
+    // Wednesday to the following Tuesday, without Saturday and Sunday.
+    List<EpochMinuteRange> actual = occurrences(event, WEDNESDAY, WEDNESDAY + 7);
+    List<EpochMinuteRange> expected = Arrays.asList(standupOn(WEDNESDAY),
+        standupOn(WEDNESDAY + 1), standupOn(WEDNESDAY + 2), standupOn(WEDNESDAY + 5),
+        standupOn(WEDNESDAY + 6));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertFalse(event.occursOn(WEDNESDAY + 3));
+  }
+
+  @Test
+  public void occurrencesAreClippedToWindow() {
+    RecurringEvent event = new RecurringEvent(STANDUP, RecurringEvent.Frequency.DAILY, WEDNESDAY,
+        RecurringEvent.FOREVER, Collections.emptyList());
+    long start = standupOn(WEDNESDAY).start();
+
+    Iterator<EpochMinuteRange> actual = event.occurrences(start + 10, start + 20);
+
+    Assert.assertEquals(EpochMinuteRange.fromStartEnd(start + 10, start + 20), actual.next());
+    Assert.assertFalse(actual.hasNext());
+  }
+
+  @Test
+  public void farWindowStartsAtItsFirstOccurrence() {
+    // Thousands of years of daily meetings, asked about one day.
+    RecurringEvent event = new RecurringEvent(STANDUP, RecurringEvent.Frequency.DAILY, 0,
+        RecurringEvent.FOREVER, Collections.emptyList());
+    long day = 1_000_000;
+
+    List<EpochMinuteRange> actual = occurrences(event, day, day + 1);
+
+    Assert.assertEquals(Arrays.asList(standupOn(day)), actual);
+  }
+
+  /** Returns the occurrences of {@code event} from the start of one day to the start of another. */
+  private static List<EpochMinuteRange> occurrences(
+      RecurringEvent event, long fromDay, long toDay) {
+    List<EpochMinuteRange> occurrences = new ArrayList<>();
+    Iterator<EpochMinuteRange> iterator = event.occurrences(
+        fromDay * EpochMinuteRange.MINUTES_PER_DAY, toDay * EpochMinuteRange.MINUTES_PER_DAY);
+    while (iterator.hasNext()) {
+      occurrences.add(iterator.next());
+    }
+    return occurrences;
+  }
+
+  private static EpochMinuteRange standupOn(long epochDay) {
+    return EpochMinuteRange.onDay(epochDay, STANDUP.getWhen());
+  }
+}
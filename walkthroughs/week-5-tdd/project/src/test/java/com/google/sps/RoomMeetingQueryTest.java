@@ -0,0 +1,100 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RoomMeetingQueryTest {
+  private static final String PERSON_A = "Person A";
+
+  private static final String ROOM_1 = "Room 1";
+  private static final String ROOM_2 = "Room 2";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  // Person A is busy from 8 to 9 AM.
+  private static final AttendeeCalendarIndex INDEX = AttendeeCalendarIndex.of(Arrays.asList(
+      new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+          Arrays.asList(PERSON_A))));
+
+  private static final MeetingRequest REQUEST =
+      new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+  @Test
+  public void annotatesSlotsWithFreeRooms() {
+    // Room 1 is free all day and Room 2 is booked from 9 to 10 AM.
+    RoomCalendars rooms = new RoomCalendars.Builder()
+        .addRoom(ROOM_1)
+        .add(ROOM_2, TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false))
+        .build();
+
+    List<RoomMeetingQuery.Slot> actual = new RoomMeetingQuery().query(INDEX, rooms, REQUEST);
+    List<String> both = Arrays.asList(ROOM_1, ROOM_2);
+    List<String> room1 = Arrays.asList(ROOM_1);
+    List<String> room2 = Arrays.asList(ROOM_2);
+    List<RoomMeetingQuery.Slot> expected = Arrays.asList(
+        new RoomMeetingQuery.Slot(TimeRange.fromStartEnd(0, TIME_0800AM, false), both),
+        new RoomMeetingQuery.Slot(
+            TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true), room1),
+        new RoomMeetingQuery.Slot(
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true), room2));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void noRooms() {
+    RoomCalendars rooms = RoomCalendars.of(Collections.emptyMap());
+
+    Assert.assertEquals(
+        Collections.emptyList(), new RoomMeetingQuery().query(INDEX, rooms, REQUEST));
+  }
+
+  @Test
+  public void manyRoomsMatchOneByOne() {
+    // Enough rooms to be checked in parallel. Room i is booked for i minutes from 9 AM.
+    Map<String, List<Event>> eventsByRoom = new HashMap<>();
+    for (int i = 0; i < 400; i++) {
+      eventsByRoom.put(String.format("Room %03d", i), Arrays.asList(new Event("Booking",
+          TimeRange.fromStartDuration(TIME_0900AM, i + 1), Collections.emptyList())));
+    }
+    RoomCalendars rooms = RoomCalendars.of(eventsByRoom);
+
+    List<RoomMeetingQuery.Slot> actual = new RoomMeetingQuery().query(INDEX, rooms, REQUEST);
+
+    // Every room is free before 8 AM, and from the end of its booking until the end of the day.
+    Assert.assertEquals(401, actual.size());
+    Assert.assertEquals(400, actual.get(0).getRooms().size());
+    for (int i = 0; i < 400; i++) {
+      RoomMeetingQuery.Slot slot = actual.get(i + 1);
+      Assert.assertEquals(TIME_0900AM + i + 1, slot.getWhen().start());
+      Assert.assertEquals(Arrays.asList(String.format("Room %03d", i)), slot.getRooms());
+    }
+  }
+}
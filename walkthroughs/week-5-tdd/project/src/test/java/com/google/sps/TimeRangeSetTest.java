@@ -0,0 +1,122 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class TimeRangeSetTest {
+  private static final TimeRangeSet A = set(0, 10, 20, 30, 40, 50);
+  private static final TimeRangeSet B = set(5, 25, 45, 60);
+
+  @Test
+  public void builderSortsAndMerges() {
+    TimeRangeSet actual = new TimeRangeSet.Builder()
+        .add(40, 50)
+        .add(0, 10)
+        .add(10, 15)
+        .add(12, 14)
+        .add(30, 30)
+        .build();
+    TimeRangeSet expected = set(0, 15, 40, 50);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void union() {
+    Assert.assertEquals(set(0, 30, 40, 60), A.union(B));
+    Assert.assertEquals(A.union(B), B.union(A));
+    Assert.assertEquals(A, A.union(TimeRangeSet.EMPTY));
+  }
+
+  @Test
+  public void unionAll() {
+    TimeRangeSet actual = TimeRangeSet.unionAll(Arrays.asList(A, B, set(30, 40)));
+
+    Assert.assertEquals(set(0, 60), actual);
+  }
+
+  @Test
+  public void intersection() {
+    Assert.assertEquals(set(5, 10, 20, 25, 45, 50), A.intersection(B));
+    Assert.assertEquals(A.intersection(B), B.intersection(A));
+    Assert.assertEquals(TimeRangeSet.EMPTY, A.intersection(TimeRangeSet.EMPTY));
+  }
+
+  @Test
+  public void subtract() {
+    Assert.assertEquals(set(0, 5, 25, 30, 40, 45), A.subtract(B));
+    Assert.assertEquals(set(10, 20, 50, 60), B.subtract(A));
+    Assert.assertEquals(TimeRangeSet.EMPTY, A.subtract(A));
+  }
+
+  @Test
+  public void subtractRangeSpanningSeveralRanges() {
+    // A single range of the other set can cut through several of our ranges.
+    TimeRangeSet actual = A.subtract(set(5, 45));
+
+    Assert.assertEquals(set(0, 5, 45, 50), actual);
+  }
+
+  @Test
+  public void minDuration() {
+    TimeRangeSet actual = set(0, 5, 10, 30, 40, 50).minDuration(10);
+
+    Assert.assertEquals(set(10, 30, 40, 50), actual);
+  }
+
+  @Test
+  public void clip() {
+    TimeRangeSet set = set(0, 10, 20, 30, 40, 50);
+
+    Assert.assertEquals(set(5, 10, 20, 30, 40, 45), set.clip(5, 45));
+    Assert.assertEquals(set(20, 30), set.clip(10, 40));
+    Assert.assertEquals(TimeRangeSet.EMPTY, set.clip(10, 20));
+    Assert.assertEquals(TimeRangeSet.EMPTY, set.clip(30, 30));
+  }
+
+  @Test
+  public void contains() {
+    Assert.assertTrue(A.contains(0));
+    Assert.assertTrue(A.contains(25));
+    Assert.assertFalse(A.contains(10));
+    Assert.assertFalse(A.contains(60));
+  }
+
+  @Test
+  public void toList() {
+    List<TimeRange> actual = set(0, 10, 20, 30).toList();
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(0, 10, false), TimeRange.fromStartEnd(20, 30, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  /** Builds a set from pairs of start and end times. */
+  private static TimeRangeSet set(int... startsAndEnds) {
+    TimeRangeSet.Builder builder = new TimeRangeSet.Builder();
+    for (int i = 0; i < startsAndEnds.length; i += 2) {
+      builder.add(startsAndEnds[i], startsAndEnds[i + 1]);
+    }
+    return builder.build();
+  }
+}
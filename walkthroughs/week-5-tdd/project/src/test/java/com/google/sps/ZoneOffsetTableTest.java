@@ -0,0 +1,79 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ZoneOffsetTableTest {
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+  // 2020-01-01, counted in days since the epoch.
+  private static final long DAY_1 = 18262;
+
+  @Test
+  public void offsetsMatchZoneRules() {
+    ZoneOffsetTable table = ZoneOffsetTable.of(NEW_YORK);
+    ZoneRules rules = NEW_YORK.getRules();
+
+    // Every quarter hour of 2020, which includes both daylight saving changes.
+    long start = DAY_1 * EpochMinuteRange.MINUTES_PER_DAY;
+    for (long minute = start; minute < start + 366 * EpochMinuteRange.MINUTES_PER_DAY;
+        minute += 15) {
+      int expected = rules.getOffset(Instant.ofEpochSecond(minute * 60)).getTotalSeconds() / 60;
+      Assert.assertEquals(expected, table.offsetAt(minute));
+    }
+  }
+
+  @Test
+  public void localTimesRoundTrip() {
+    ZoneOffsetTable table = ZoneOffsetTable.of(NEW_YORK);
+
+    // Noon every day of 2020, which never falls in a daylight saving change.
+    for (long day = DAY_1; day < DAY_1 + 366; day++) {
+      LocalDateTime noon = LocalDate.ofEpochDay(day).atTime(12, 0);
+      long local = noon.toEpochSecond(ZoneOffset.UTC) / 60;
+      long expected = noon.atZone(NEW_YORK).toEpochSecond() / 60;
+
+      Assert.assertEquals(expected, table.toUtc(local));
+      Assert.assertEquals(local, table.toLocal(expected));
+    }
+  }
+
+  @Test
+  public void outsideTableUsesRules() {
+    ZoneOffsetTable table = ZoneOffsetTable.of(NEW_YORK);
+    long minute = LocalDate.of(2300, 7, 1).toEpochDay() * EpochMinuteRange.MINUTES_PER_DAY;
+
+    Assert.assertEquals(-4 * 60, table.offsetAt(minute));
+  }
+
+  @Test
+  public void tablesAreShared() {
+    Assert.assertSame(
+        ZoneOffsetTable.of(NEW_YORK), ZoneOffsetTable.of(ZoneId.of(NEW_YORK.getId())));
+    Assert.assertEquals(0, ZoneOffsetTable.UTC.offsetAt(0));
+  }
+}